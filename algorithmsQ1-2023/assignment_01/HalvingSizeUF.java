@@ -0,0 +1,63 @@
+public class HalvingSizeUF implements UnionFind {
+
+  private final int[] parent;
+  private final int[] size;
+  private int count;
+
+  public HalvingSizeUF(int n) {
+    this.parent = new int[n];
+    this.size = new int[n];
+    for (int i = 0; i < n; ++i) {
+      parent[i] = i;
+      size[i] = 1;
+    }
+    this.count = n;
+  }
+
+  @Override
+  public int find(int p) {
+    int[] par = this.parent;
+    while (p != par[p]) {
+      par[p] = par[par[p]];
+      p = par[p];
+    }
+    return p;
+  }
+
+  @Override
+  public boolean union(int p, int q) {
+    int rootP = find(p);
+    int rootQ = find(q);
+    if (rootP == rootQ) {
+      return false;
+    }
+    if (size[rootP] < size[rootQ]) {
+      parent[rootP] = rootQ;
+      size[rootQ] += size[rootP];
+    } else {
+      parent[rootQ] = rootP;
+      size[rootP] += size[rootQ];
+    }
+    --this.count;
+    return true;
+  }
+
+  @Override
+  public void reset(int p) {
+    if (parent[p] != p) {
+      parent[p] = p;
+      ++this.count;
+    }
+    size[p] = 1;
+  }
+
+  @Override
+  public int parent(int p) {
+    return parent[p];
+  }
+
+  @Override
+  public int count() {
+    return this.count;
+  }
+}
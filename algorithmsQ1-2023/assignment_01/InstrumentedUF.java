@@ -0,0 +1,55 @@
+/**
+ * Counting decorator over a {@link UnionFind}: records find and union calls and the length of
+ * every find path into a {@link PercolationMetrics}. Path lengths are measured by walking the
+ * parents before delegating, so only instrumented runs pay for it.
+ */
+public class InstrumentedUF implements UnionFind {
+
+  private final UnionFind delegate;
+  private final PercolationMetrics metrics;
+
+  public InstrumentedUF(UnionFind delegate, PercolationMetrics metrics) {
+    this.delegate = delegate;
+    this.metrics = metrics;
+  }
+
+  @Override
+  public int find(int p) {
+    recordPath(p);
+    return delegate.find(p);
+  }
+
+  // the delegate's union finds the roots of p and q itself: record those two paths and hand it
+  // p and q unchanged, so no extra find runs and nothing is counted twice. q's path is measured
+  // before the find of p gets to compress any part the two share
+  @Override
+  public boolean union(int p, int q) {
+    metrics.recordUnion();
+    recordPath(p);
+    recordPath(q);
+    return delegate.union(p, q);
+  }
+
+  private void recordPath(int p) {
+    int length = 0;
+    for (int q = p, parent; (parent = delegate.parent(q)) != q; q = parent) {
+      ++length;
+    }
+    metrics.recordFind(length);
+  }
+
+  @Override
+  public int parent(int p) {
+    return delegate.parent(p);
+  }
+
+  @Override
+  public int count() {
+    return delegate.count();
+  }
+
+  @Override
+  public void reset(int p) {
+    delegate.reset(p);
+  }
+}
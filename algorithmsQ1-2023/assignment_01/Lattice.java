@@ -0,0 +1,171 @@
+/**
+ * Geometry of a percolation lattice: 2D rectangular grids with 4 (von Neumann) or 8 (Moore)
+ * neighbors, and 3D cubic grids with 6 neighbors. Sites percolate from the first row (layer in 3D)
+ * to the last one.
+ * Sites are stored in a padded layout that surrounds the lattice with one ring of sites that are
+ * never opened. Every neighbor of a real site is then a fixed offset away and always in range, so
+ * open() walks a precomputed offset table with no border checks and no allocation.
+ * Site ids are 0-based and row-major: row * cols + col, or (layer * rows + row) * cols + col.
+ */
+public final class Lattice {
+
+  private final int rows;
+  private final int cols;
+  private final int layers;
+  private final int sites;
+  // padded strides: width between rows, plane between layers (0 for 2D lattices)
+  private final int width;
+  private final int plane;
+  private final int paddedSize;
+  private final int topEnd;
+  private final int bottomStart;
+  private final int[] offsets;
+
+  private Lattice(int layers, int rows, int cols, boolean moore) {
+    if (rows <= 0 || cols <= 0 || layers <= 0) {
+      throw new IllegalArgumentException(String.format(
+          "dimensions must be greater than zero received %d x %d x %d", layers, rows, cols));
+    }
+    long w = cols + 2L;
+    long p = layers == 1 ? 0 : w * (rows + 2L);
+    // two extra slots for the virtual top and bottom sites of the union-finds
+    long padded = layers == 1 ? w * (rows + 2L) : p * (layers + 2L);
+    if (padded + 2 > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException(String.format(
+          "lattice %d x %d x %d does not fit int site ids", layers, rows, cols));
+    }
+    this.rows = rows;
+    this.cols = cols;
+    this.layers = layers;
+    this.sites = layers * rows * cols;
+    this.width = (int) w;
+    this.plane = (int) p;
+    this.paddedSize = (int) padded;
+    // the boundary slab is a row in 2D and a layer in 3D
+    int slab = layers == 1 ? width : plane;
+    int slabs = layers == 1 ? rows : layers;
+    this.topEnd = 2 * slab;
+    this.bottomStart = slabs * slab;
+    if (layers > 1) {
+      this.offsets = new int[] {-plane, plane, -width, width, -1, 1};
+    } else if (moore) {
+      this.offsets = new int[] {-width, width, -1, 1, -width - 1, -width + 1, width - 1, width + 1};
+    } else {
+      this.offsets = new int[] {-width, width, -1, 1};
+    }
+  }
+
+  // n-by-n grid, 4 neighbors
+  public static Lattice square(int n) {
+    return new Lattice(1, n, n, false);
+  }
+
+  // rows-by-cols grid, 4 neighbors
+  public static Lattice rectangular(int rows, int cols) {
+    return new Lattice(1, rows, cols, false);
+  }
+
+  // rows-by-cols grid, 8 neighbors
+  public static Lattice moore(int rows, int cols) {
+    return new Lattice(1, rows, cols, true);
+  }
+
+  // n-by-n-by-n grid, 6 neighbors, percolating from the first layer to the last one
+  public static Lattice cubic(int n) {
+    return new Lattice(n, n, n, false);
+  }
+
+  public int rows() {
+    return this.rows;
+  }
+
+  public int cols() {
+    return this.cols;
+  }
+
+  public int layers() {
+    return this.layers;
+  }
+
+  // number of real sites
+  public int sites() {
+    return this.sites;
+  }
+
+  // id of the site (row, col) of a 2D lattice, 1-based coordinates
+  public int site(int row, int col) {
+    if (layers != 1) {
+      throw new IllegalArgumentException("3D lattice, a layer is required");
+    }
+    return site(1, row, col);
+  }
+
+  // id of the site (layer, row, col), 1-based coordinates
+  public int site(int layer, int row, int col) {
+    validate("layer", layer, layers);
+    validate("row", row, rows);
+    validate("col", col, cols);
+    return ((layer - 1) * rows + row - 1) * cols + col - 1;
+  }
+
+  private static void validate(String name, int value, int max) {
+    if (value < 1 || value > max) {
+      throw new IllegalArgumentException(
+          String.format("%s must be between [1,%d], received: %d", name, max, value));
+    }
+  }
+
+  // slots needed to address every padded site
+  int paddedSize() {
+    return this.paddedSize;
+  }
+
+  // padded index of a site id, callers guarantee 0 <= site < sites()
+  int toPadded(int site) {
+    int col = site % cols;
+    int rest = site / cols;
+    int row = rest % rows;
+    int layer = rest / rows;
+    return (layer + 1) * plane + (row + 1) * width + col + 1;
+  }
+
+  // fills ids with the padded index of every site, in site id order; ids.length == sites().
+  // Row by row, so no divisions: for loops that draw sites in bulk and skip the range checks
+  void fillPadded(int[] ids) {
+    int k = 0;
+    for (int layer = 1; layer <= layers; ++layer) {
+      for (int row = 1; row <= rows; ++row) {
+        int start = layer * plane + row * width + 1;
+        for (int col = 0; col < cols; ++col) {
+          ids[k++] = start + col;
+        }
+      }
+    }
+  }
+
+  // padded index of the site (row, col) of a 2D lattice, 1-based coordinates: the padding ring
+  // shifts every coordinate by one, which cancels the 1-based offset
+  int toPadded(int row, int col) {
+    if (layers != 1) {
+      throw new IllegalArgumentException("3D lattice, a layer is required");
+    }
+    validate("row", row, rows);
+    validate("col", col, cols);
+    return row * width + col;
+  }
+
+  // neighbor offsets in the padded layout, shared: callers must not modify it
+  int[] offsets() {
+    return this.offsets;
+  }
+
+  // is the opened padded site in the first row (layer)? Padding before it is never open
+  boolean isTop(int padded) {
+    return padded < topEnd;
+  }
+
+  // is the opened padded site in the last row (layer)? Padding after it is never open
+  boolean isBottom(int padded) {
+    return padded >= bottomStart;
+  }
+}
@@ -0,0 +1,76 @@
+/**
+ * Histogram of non-negative longs in logarithmic buckets, HdrHistogram style: every power of two
+ * range is split into 8 linear sub-buckets, so any recorded value is known to within 12.5% with a
+ * fixed footprint of 496 counters.
+ */
+public class LogHistogram {
+
+  private static final int SUB_BITS = 3;
+  private static final int SUB_BUCKETS = 1 << SUB_BITS;
+  private static final int BUCKETS = SUB_BUCKETS + (64 - SUB_BITS) * SUB_BUCKETS;
+
+  private final long[] counts = new long[BUCKETS];
+  private long total;
+  private long max;
+
+  private static int bucketOf(long value) {
+    if (value < SUB_BUCKETS) {
+      return (int) value;
+    }
+    int exponent = 63 - Long.numberOfLeadingZeros(value);
+    int sub = (int) (value >>> (exponent - SUB_BITS)) & (SUB_BUCKETS - 1);
+    return SUB_BUCKETS + (exponent - SUB_BITS) * SUB_BUCKETS + sub;
+  }
+
+  // largest value that falls into the bucket
+  private static long highestIn(int bucket) {
+    if (bucket < SUB_BUCKETS) {
+      return bucket;
+    }
+    int exponent = (bucket - SUB_BUCKETS) / SUB_BUCKETS + SUB_BITS;
+    long sub = (bucket - SUB_BUCKETS) % SUB_BUCKETS;
+    long width = 1L << (exponent - SUB_BITS);
+    return ((SUB_BUCKETS + sub) << (exponent - SUB_BITS)) + width - 1;
+  }
+
+  // records one value, negative values count as 0
+  public void record(long value) {
+    long v = Math.max(0, value);
+    ++counts[bucketOf(v)];
+    ++this.total;
+    this.max = Math.max(this.max, v);
+  }
+
+  // adds every value recorded by other
+  public void merge(LogHistogram other) {
+    for (int i = 0; i < BUCKETS; ++i) {
+      counts[i] += other.counts[i];
+    }
+    this.total += other.total;
+    this.max = Math.max(this.max, other.max);
+  }
+
+  public long count() {
+    return this.total;
+  }
+
+  public long max() {
+    return this.max;
+  }
+
+  // value at or below which a fraction q of the recorded values lie, within bucket precision
+  public long percentile(double q) {
+    if (total == 0) {
+      return 0;
+    }
+    long rank = Math.max(1, (long) Math.ceil(q * total));
+    long seen = 0;
+    for (int i = 0; i < BUCKETS; ++i) {
+      seen += counts[i];
+      if (seen >= rank) {
+        return Math.min(highestIn(i), max);
+      }
+    }
+    return max;
+  }
+}
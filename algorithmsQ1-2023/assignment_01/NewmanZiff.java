@@ -0,0 +1,185 @@
+import edu.princeton.cs.algs4.StdOut;
+
+import java.util.SplittableRandom;
+
+/**
+ * Newman-Ziff estimator on the n-by-n percolation lattice. Each run opens all n^2 sites once, in
+ * random order, and records for every occupation count k whether the lattice spans top to bottom
+ * and the size of the largest cluster. Averaged over the runs these give the microcanonical
+ * observables Q(k); the canonical curve for any p is the binomial convolution
+ * sum_k C(N, k) p^k (1 - p)^(N - k) Q(k), so a single sweep per run serves every p.
+ */
+public class NewmanZiff {
+
+  private static final byte TOP = 1;
+  private static final byte BOTTOM = 2;
+  // binomial weights below this fraction of the peak weight are dropped from the convolution
+  private static final double WEIGHT_CUTOFF = 1e-16;
+
+  private final int n;
+  private final int nSqr;
+  private final int runs;
+  // spanning[k]: fraction of runs spanning with k open sites
+  private final double[] spanning;
+  // largest[k]: mean largest cluster size, as a fraction of n^2, with k open sites
+  private final double[] largest;
+
+  // performs runs sweeps over an n-by-n lattice, seeded for reproducibility
+  public NewmanZiff(int n, int runs, long seed) {
+    if (n <= 0 || runs <= 0) {
+      throw new IllegalArgumentException(
+          String.format("n and runs must be greater than zero received %d, %d", n, runs));
+    }
+    this.n = n;
+    this.nSqr = n * n;
+    this.runs = runs;
+    this.spanning = new double[nSqr + 1];
+    this.largest = new double[nSqr + 1];
+    SplittableRandom random = new SplittableRandom(seed);
+    int[] order = new int[nSqr];
+    for (int i = 0; i < nSqr; ++i) {
+      order[i] = i;
+    }
+    for (int run = 0; run < runs; ++run) {
+      sweep(order, random);
+    }
+    for (int k = 0; k <= nSqr; ++k) {
+      spanning[k] /= runs;
+      largest[k] /= (double) runs * nSqr;
+    }
+  }
+
+  // one run: clusters are tracked with their own union-find without virtual sites, so top-row
+  // clusters are not merged with each other; roots carry the size and the TOP/BOTTOM flags
+  private void sweep(int[] order, SplittableRandom random) {
+    UnionFind uf = UnionFind.Kind.HALVING_SIZE.create(nSqr);
+    int[] size = new int[nSqr];
+    byte[] edges = new byte[nSqr];
+    int maxCluster = 0;
+    boolean spans = false;
+    for (int k = 0; k < nSqr; ++k) {
+      int swap = k + random.nextInt(nSqr - k);
+      int site = order[swap];
+      order[swap] = order[k];
+      order[k] = site;
+
+      size[site] = 1;
+      int r = site / n;
+      int c = site % n;
+      byte flags = 0;
+      if (r == 0) {
+        flags |= TOP;
+      }
+      if (r == n - 1) {
+        flags |= BOTTOM;
+      }
+      edges[site] = flags;
+      int root = site;
+      if (r > 0) {
+        root = join(uf, size, edges, root, site - n);
+      }
+      if (r < n - 1) {
+        root = join(uf, size, edges, root, site + n);
+      }
+      if (c > 0) {
+        root = join(uf, size, edges, root, site - 1);
+      }
+      if (c < n - 1) {
+        root = join(uf, size, edges, root, site + 1);
+      }
+      maxCluster = Math.max(maxCluster, size[root]);
+      spans |= edges[root] == (TOP | BOTTOM);
+      if (spans) {
+        spanning[k + 1] += 1;
+      }
+      largest[k + 1] += maxCluster;
+    }
+  }
+
+  // merges root's cluster with the cluster of an open neighbor, returns the merged root
+  private static int join(UnionFind uf, int[] size, byte[] edges, int root, int neighbor) {
+    if (size[neighbor] == 0) {
+      return root;
+    }
+    int other = uf.find(neighbor);
+    if (other == root) {
+      return root;
+    }
+    uf.union(root, other);
+    int merged = uf.find(root);
+    int absorbed = merged == root ? other : root;
+    size[merged] += size[absorbed];
+    edges[merged] |= edges[absorbed];
+    return merged;
+  }
+
+  // fraction of runs that span with exactly k open sites
+  public double spanningProbabilityAt(int k) {
+    return this.spanning[k];
+  }
+
+  // mean largest cluster, as a fraction of all sites, with exactly k open sites
+  public double largestClusterAt(int k) {
+    return this.largest[k];
+  }
+
+  // probability that the lattice percolates when each site is open with probability p
+  public double percolationProbability(double p) {
+    return convolve(this.spanning, p);
+  }
+
+  // expected largest cluster, as a fraction of all sites, when each site is open with
+  // probability p
+  public double largestClusterFraction(double p) {
+    return convolve(this.largest, p);
+  }
+
+  // number of sweeps averaged
+  public int runs() {
+    return this.runs;
+  }
+
+  // sum_k C(N, k) p^k (1 - p)^(N - k) q[k], weights built outward from the mode by their ratio
+  // so that nothing underflows for large N
+  private double convolve(double[] q, double p) {
+    if (!(p >= 0 && p <= 1)) {
+      throw new IllegalArgumentException("p must be between [0,1], received: " + p);
+    }
+    if (p == 0) {
+      return q[0];
+    }
+    if (p == 1) {
+      return q[nSqr];
+    }
+    int mode = (int) Math.min(nSqr, Math.floor((nSqr + 1) * p));
+    double odds = p / (1 - p);
+    double total = 1;
+    double sum = q[mode];
+    double weight = 1;
+    for (int k = mode + 1; k <= nSqr && weight > WEIGHT_CUTOFF; ++k) {
+      weight *= odds * (nSqr - k + 1) / k;
+      total += weight;
+      sum += weight * q[k];
+    }
+    weight = 1;
+    for (int k = mode - 1; k >= 0 && weight > WEIGHT_CUTOFF; --k) {
+      weight *= (k + 1) / (odds * (nSqr - k));
+      total += weight;
+      sum += weight * q[k];
+    }
+    return sum / total;
+  }
+
+  public static void main(String[] args) {
+    int n = args.length > 0 ? Integer.parseInt(args[0]) : 64;
+    int runs = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+    long seed = args.length > 2 ? Long.parseLong(args[2]) : System.nanoTime();
+    NewmanZiff estimator = new NewmanZiff(n, runs, seed);
+    StdOut.printf("%6s %12s %12s%n", "p", "P(perc)", "largest");
+    for (int i = 40; i <= 80; ++i) {
+      double p = i / 100.0;
+      StdOut.printf("%6.2f %12.6f %12.6f%n", p, estimator.percolationProbability(p),
+          estimator.largestClusterFraction(p));
+    }
+  }
+}
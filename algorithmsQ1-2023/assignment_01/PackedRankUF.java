@@ -0,0 +1,70 @@
+import java.util.Arrays;
+
+/**
+ * Union by rank with path halving in a single int[]: a non-negative entry is the parent of the
+ * site, a negative entry marks a root and stores -(rank + 1). 4 bytes per site.
+ */
+public class PackedRankUF implements UnionFind {
+
+  private final int[] parent;
+  private int count;
+
+  public PackedRankUF(int n) {
+    this.parent = new int[n];
+    Arrays.fill(parent, -1);
+    this.count = n;
+  }
+
+  @Override
+  public int find(int p) {
+    int[] par = this.parent;
+    int q;
+    while ((q = par[p]) >= 0) {
+      int grand = par[q];
+      if (grand < 0) {
+        return q;
+      }
+      par[p] = grand;
+      p = grand;
+    }
+    return p;
+  }
+
+  @Override
+  public boolean union(int p, int q) {
+    int rootP = find(p);
+    int rootQ = find(q);
+    if (rootP == rootQ) {
+      return false;
+    }
+    // entries of roots are -(rank + 1), the more negative the higher the rank
+    if (parent[rootP] > parent[rootQ]) {
+      parent[rootP] = rootQ;
+    } else if (parent[rootP] < parent[rootQ]) {
+      parent[rootQ] = rootP;
+    } else {
+      parent[rootQ] = rootP;
+      --parent[rootP];
+    }
+    --this.count;
+    return true;
+  }
+
+  @Override
+  public void reset(int p) {
+    if (parent[p] >= 0) {
+      ++this.count;
+    }
+    parent[p] = -1;
+  }
+
+  @Override
+  public int parent(int p) {
+    return parent[p] < 0 ? p : parent[p];
+  }
+
+  @Override
+  public int count() {
+    return this.count;
+  }
+}
@@ -1,5 +1,7 @@
 import edu.princeton.cs.algs4.StdOut;
-import edu.princeton.cs.algs4.WeightedQuickUnionUF;
+
+import java.util.Arrays;
+import java.util.BitSet;
 
 public class Percolation {
 
@@ -7,75 +9,193 @@ public class Percolation {
   private static final String FULL_LABEL = "0 ";
   private static final String BLOCKED_LABEL = "X ";
   private static final String EMPTY_LABEL = "_ ";
-  private final int n;
+
+  public enum Feature {
+    // one union-find plus a bottom flag per root instead of a second union-find
+    COMPACT,
+    // cluster count, largest cluster, per-site cluster size and size histogram kept up to date
+    // by open(); costs a third union-find without virtual sites and two more int[] per site
+    CLUSTERS
+  }
+
+  private final Lattice lattice;
+  // padded neighbor offsets of the lattice
+  private final int[] offsets;
   private int openSites;
-  private final WeightedQuickUnionUF qf;
-  private final boolean[] fullSites;
+  // sites plus virtual top and bottom, answers percolates(); null in compact mode
+  private final UnionFind qf;
+  // sites plus virtual top only, answers isFull() without backwash
+  private final UnionFind fullQf;
+  // compact mode only: set on the fullQf root of every component touching the bottom row
+  private final BitSet bottomRoots;
   private boolean percolating;
-  private final boolean[] emptySites;
-  private final int nSqr;
-  private final int startBotts;
+  // indexed by padded site, the padding ring is never set
+  private final BitSet emptySites;
+  private final int virtualTop;
+  private final int virtualBottom;
+  // CLUSTERS only: true clusters, top-row sites are not joined through a virtual site
+  private final UnionFind clusterQf;
+  // CLUSTERS only: size of the cluster, valid at clusterQf roots
+  private final int[] clusterSize;
+  // CLUSTERS only: clustersBySize[s] = number of clusters with s sites
+  private final int[] clustersBySize;
+  private int clusterCount;
+  private int largestCluster;
+  // null unless instrumented
+  private final PercolationMetrics metrics;
 
   // creates n-by-n grid, with all sites initially blocked
   public Percolation(int n) {
-    Percolation.validateN(n);
-    this.n = n;
-    this.nSqr = n * n;
-    this.qf = new WeightedQuickUnionUF(nSqr);
-    this.fullSites = new boolean[nSqr];
-    this.emptySites = new boolean[nSqr];
+    this(n, UnionFind.Kind.HALVING_SIZE);
+  }
+
+  // creates n-by-n grid backed by the given union-find implementation
+  public Percolation(int n, UnionFind.Kind kind, Feature... features) {
+    this(Lattice.square(n), kind, features);
+  }
+
+  // creates a lattice of any topology, with all sites initially blocked
+  public Percolation(Lattice lattice, UnionFind.Kind kind, Feature... features) {
+    this(lattice, kind, null, features);
+  }
+
+  // as above, counting opens and union-find work into metrics unless it is null. Without
+  // metrics the union-finds are used directly, with no counting wrapper in the way
+  public Percolation(Lattice lattice, UnionFind.Kind kind, PercolationMetrics metrics,
+      Feature... features) {
+    boolean compact = Arrays.asList(features).contains(Feature.COMPACT);
+    boolean clusters = Arrays.asList(features).contains(Feature.CLUSTERS);
+    int padded = lattice.paddedSize();
+    this.lattice = lattice;
+    this.offsets = lattice.offsets();
+    this.virtualTop = padded;
+    this.virtualBottom = padded + 1;
+    this.metrics = metrics;
+    this.qf = compact ? null : create(kind, padded + 2, metrics);
+    this.fullQf = create(kind, padded + 1, metrics);
+    this.bottomRoots = compact ? new BitSet(padded + 1) : null;
+    this.emptySites = new BitSet(padded);
     this.percolating = false;
-    this.startBotts = nSqr - n;
+    this.clusterQf = clusters ? create(kind, padded, metrics) : null;
+    this.clusterSize = clusters ? new int[padded] : null;
+    this.clustersBySize = clusters ? new int[lattice.sites() + 1] : null;
   }
 
-  private static void validateN(int n) {
-    if (n <= 0) {
-      throw new IllegalArgumentException("n must be between [1,1000], received: " + n);
-    }
+  private static UnionFind create(UnionFind.Kind kind, int size, PercolationMetrics metrics) {
+    UnionFind uf = kind.create(size);
+    return metrics == null ? uf : new InstrumentedUF(uf, metrics);
   }
 
   // opens the site (row, col) if it is not open already
   public void open(int row, int col) {
-    int r = row - 1;
-    int c = col - 1;
-    Percolation.validateArguments(this.n, r, c);
-    int siteId = r * n + c;
-    if (isBlocked(siteId)) {
-      processOpening(siteId, r, c);
-      reviewPercolation();
+    openPadded(padded(row, col));
+  }
+
+  // opens the site with the given lattice id if it is not open already
+  public void openSite(int site) {
+    openPadded(padded(site));
+  }
+
+  // opens the site with the given padded index (see Lattice.fillPadded) if it is not open
+  // already. Unchecked: for trial loops that generate valid padded ids themselves
+  void openPadded(int padded) {
+    if (isBlocked(padded)) {
+      boolean touchesBottom = processOpening(padded);
+      reviewPercolation(padded, touchesBottom);
       ++this.openSites;
+      if (metrics != null) {
+        metrics.recordOpen();
+      }
     }
   }
 
-  private boolean isBlocked(int siteId) {
-    return !emptySites[siteId];
-  }
-
-  private void reviewPercolation() {
-    if (!percolating) {
-      for (int id = this.startBotts; id < nSqr; ++id) {
-        int parent = qf.find(id);
-        if (fullSites[parent]) {
-          this.percolating = true;
-          if (DEBUG) {
-            StdOut.printf("Percolates: %s connected to %s %n",
-                String.format("[%d, %d]", id / n, id % n),
-                String.format("[%d, %d]", parent / n, parent % n));
-          }
-          return;
-        }
+  private int padded(int row, int col) {
+    return lattice.toPadded(row, col);
+  }
+
+  private int padded(int site) {
+    if (site < 0 || site >= lattice.sites()) {
+      throw new IllegalArgumentException(
+          String.format("site must be between [0,%d), received: %d", lattice.sites(), site));
+    }
+    return lattice.toPadded(site);
+  }
+
+  // the geometry of this system
+  public Lattice lattice() {
+    return this.lattice;
+  }
+
+  // blocks every site again, reusing the buffers. Only the sites opened since the last reset are
+  // touched in the union-finds, the open bitset is scanned a word at a time
+  public void reset() {
+    for (int i = emptySites.nextSetBit(0); i >= 0; i = emptySites.nextSetBit(i + 1)) {
+      if (qf != null) {
+        qf.reset(i);
       }
+      fullQf.reset(i);
+      if (bottomRoots != null) {
+        bottomRoots.clear(i);
+      }
+      if (clusterQf != null) {
+        clusterQf.reset(i);
+        // stale sizes on non-roots only zero histogram slots that are being cleared anyway
+        clustersBySize[clusterSize[i]] = 0;
+        clusterSize[i] = 0;
+      }
+    }
+    if (qf != null) {
+      qf.reset(virtualTop);
+      qf.reset(virtualBottom);
+    }
+    fullQf.reset(virtualTop);
+    if (bottomRoots != null) {
+      bottomRoots.clear(virtualTop);
+    }
+    emptySites.clear();
+    this.openSites = 0;
+    this.percolating = false;
+    this.clusterCount = 0;
+    this.largestCluster = 0;
+  }
+
+  private boolean isBlocked(int siteId) {
+    return !emptySites.get(siteId);
+  }
+
+  private boolean isFull(int siteId) {
+    return emptySites.get(siteId) && fullQf.find(siteId) == fullQf.find(virtualTop);
+  }
+
+  private void reviewPercolation(int siteId, boolean touchesBottom) {
+    if (percolating) {
+      return;
+    }
+    if (qf != null) {
+      this.percolating = qf.find(virtualTop) == qf.find(virtualBottom);
+    } else {
+      // only the component of the site just opened can have changed
+      this.percolating = touchesBottom && fullQf.find(siteId) == fullQf.find(virtualTop);
+    }
+    if (DEBUG && percolating) {
+      StdOut.println("Percolates");
     }
   }
 
   @Override
   public String toString() {
     StringBuilder sb = new StringBuilder();
-    for (int i = 0; i < this.nSqr; ++i) {
-      if (i % n == 0) {
+    int cols = lattice.cols();
+    int perLayer = cols * lattice.rows();
+    for (int i = 0; i < lattice.sites(); ++i) {
+      if (i % perLayer == 0 && i > 0) {
+        sb.append("\n");
+      }
+      if (i % cols == 0) {
         sb.append("\n");
       }
-      sb.append(calculateSiteLabel(isBlocked(i), this.fullSites[qf.find(i)]));
+      int padded = lattice.toPadded(i);
+      sb.append(calculateSiteLabel(isBlocked(padded), isFull(padded)));
     }
     sb.append("\n");
     return sb.toString();
@@ -88,107 +208,93 @@ public class Percolation {
     return isFull ? FULL_LABEL : EMPTY_LABEL;
   }
 
-  private void processOpening(int siteId, int r, int c) {
+  // returns whether the component of the opened site reaches the bottom row (compact mode only)
+  private boolean processOpening(int siteId) {
     if (DEBUG) {
-      StdOut.printf("Opening [%d, %d]%n", r, c);
+      StdOut.printf("Opening padded site %d%n", siteId);
     }
-    int[][] neighbors = {{0, 1}, {0, -1}, {1, 0}, {-1, 0}};
-    this.emptySites[siteId] = true;
-    if (r == 0) {
+    this.emptySites.set(siteId);
+    if (clusterQf != null) {
+      clusterSize[siteId] = 1;
+      ++clustersBySize[1];
+      ++this.clusterCount;
+      this.largestCluster = Math.max(this.largestCluster, 1);
+    }
+    boolean touchesBottom = lattice.isBottom(siteId);
+    if (lattice.isTop(siteId)) {
       // any open site on the top will be filled
-      processOpenTop(siteId, c, neighbors);
-    } else {
-      processOpenOthers(siteId, r, c, neighbors);
+      connect(siteId, virtualTop);
+    }
+    if (touchesBottom && qf != null) {
+      qf.union(siteId, virtualBottom);
+    }
+    // the padding ring is never open, so no neighbor needs a border check
+    for (int offset : offsets) {
+      touchesBottom |= connectIfOpen(siteId, siteId + offset);
+    }
+    if (touchesBottom && bottomRoots != null) {
+      bottomRoots.set(fullQf.find(siteId));
     }
     if (DEBUG) {
       StdOut.println(this);
     }
+    return touchesBottom;
   }
 
-  private void processOpenOthers(int siteId, int r, int c, int[][] neighbors) {
-    int parentId = -1;
-    for (int[] nCoord : neighbors) {
-      int rN = r + nCoord[0], cN = c + nCoord[1];
-      if (validSite(rN, cN)) {
-        int neighborId = rN * n + cN;
-        if (this.emptySites[neighborId]) {
-          qf.union(siteId, neighborId);
-          if (fullSites[siteId] || fullSites[neighborId]) {
-            parentId = qf.find(neighborId);
-            fullSites[parentId] = true;
-            fullSites[siteId] = true;
-            fullSites[neighborId] = true;
-          }
-        }
-      }
+  // returns whether the neighbor's component was flagged as touching the bottom row
+  private boolean connectIfOpen(int siteId, int neighborId) {
+    if (isBlocked(neighborId)) {
+      return false;
     }
-    if (parentId > -1) {
-      fillAllChildren(parentId);
+    boolean neighborBottom = bottomRoots != null && bottomRoots.get(fullQf.find(neighborId));
+    connect(siteId, neighborId);
+    if (clusterQf != null) {
+      mergeClusters(siteId, neighborId);
     }
+    return neighborBottom;
   }
 
-  private void processOpenTop(int siteId, int col, int[][] neighbors) {
-    int parentId = -1;
-    fullSites[siteId] = true;
-    for (int[] nCoord : neighbors) {
-      int nCol = col + nCoord[1];
-      if (validSite(nCoord[0], nCol)) {
-        int neighborId = nCoord[0] * n + nCol;
-        if (this.emptySites[neighborId]) {
-          qf.union(siteId, neighborId);
-          parentId = qf.find(neighborId);
-          fullSites[parentId] = true;
-          fullSites[neighborId] = true;
-        }
-      }
+  private void mergeClusters(int siteId, int neighborId) {
+    int rootA = clusterQf.find(siteId);
+    int rootB = clusterQf.find(neighborId);
+    if (rootA == rootB) {
+      return;
     }
-    if (parentId > -1) {
-      fillAllChildren(parentId);
-    }
-  }
-
-  private boolean validSite(int rN, int cN) {
-    return !invalidInput(this.n, rN) && !invalidInput(this.n, cN);
+    int merged = clusterSize[rootA] + clusterSize[rootB];
+    --clustersBySize[clusterSize[rootA]];
+    --clustersBySize[clusterSize[rootB]];
+    clusterQf.union(rootA, rootB);
+    clusterSize[clusterQf.find(rootA)] = merged;
+    ++clustersBySize[merged];
+    --this.clusterCount;
+    this.largestCluster = Math.max(this.largestCluster, merged);
   }
 
-  private void fillAllChildren(int parentId) {
-    for (int i = 0; i < nSqr; i++) {
-      if (qf.find(i) == parentId) {
-        this.fullSites[i] = true;
-      }
-    }
-  }
-
-
-  private static boolean invalidInput(int n, int idx) {
-    return idx < 0 || idx >= n;
-  }
-
-  private static void validateArguments(int n, int row, int col) {
-    if (invalidInput(n, row)) {
-      throw new IllegalArgumentException(
-          String.format("row must be between [1,%d], received: %d", n, row));
-    }
-    if (invalidInput(n, col)) {
-      throw new IllegalArgumentException(
-          String.format("col must be between [1,%d], received: %d", n, col));
+  private void connect(int siteId, int otherId) {
+    if (qf != null) {
+      qf.union(siteId, otherId);
     }
+    fullQf.union(siteId, otherId);
   }
 
   // is the site (row, col) open?
   public boolean isOpen(int row, int col) {
-    int r = row - 1;
-    int c = col - 1;
-    validateArguments(n, r, c);
-    return this.emptySites[r * n + c];
+    return this.emptySites.get(padded(row, col));
   }
 
   // is the site (row, col) full?
   public boolean isFull(int row, int col) {
-    int r = row - 1;
-    int c = col - 1;
-    validateArguments(n, r, c);
-    return this.fullSites[r * n + c];
+    return isFull(padded(row, col));
+  }
+
+  // is the site with the given lattice id open?
+  public boolean isOpenSite(int site) {
+    return this.emptySites.get(padded(site));
+  }
+
+  // is the site with the given lattice id full?
+  public boolean isFullSite(int site) {
+    return isFull(padded(site));
   }
 
   // returns the number of open sites
@@ -196,6 +302,40 @@ public class Percolation {
     return this.openSites;
   }
 
+  // number of clusters of open sites (requires Feature.CLUSTERS)
+  public int numberOfClusters() {
+    checkClusters();
+    return this.clusterCount;
+  }
+
+  // number of sites in the largest cluster (requires Feature.CLUSTERS)
+  public int largestClusterSize() {
+    checkClusters();
+    return this.largestCluster;
+  }
+
+  // number of sites in the cluster of (row, col), 0 when blocked (requires Feature.CLUSTERS)
+  public int clusterSize(int row, int col) {
+    checkClusters();
+    int siteId = padded(row, col);
+    return isBlocked(siteId) ? 0 : clusterSize[clusterQf.find(siteId)];
+  }
+
+  // number of clusters with exactly size sites (requires Feature.CLUSTERS)
+  public int clustersOfSize(int size) {
+    checkClusters();
+    if (size <= 0 || size > lattice.sites()) {
+      return 0;
+    }
+    return clustersBySize[size];
+  }
+
+  private void checkClusters() {
+    if (clusterQf == null) {
+      throw new IllegalStateException("cluster statistics need Feature.CLUSTERS");
+    }
+  }
+
   // does the system percolate?
   public boolean percolates() {
     return this.percolating;
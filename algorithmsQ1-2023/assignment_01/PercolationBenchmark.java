@@ -0,0 +1,153 @@
+import edu.princeton.cs.algs4.StdOut;
+import edu.princeton.cs.algs4.StdRandom;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Throughput and allocation baseline for the percolation hot path. Each benchmark is warmed up,
+ * then timed over several iterations; it reports operations per second and bytes allocated per
+ * operation (from the per-thread allocation counter of the HotSpot ThreadMXBean, the same source
+ * as JMH's gc profiler).
+ * Usage: java PercolationBenchmark [iterations] [n ...], defaults to 5 iterations on n = 100,
+ * 1000, 4000.
+ */
+public class PercolationBenchmark {
+
+  private static final int[] DEFAULT_SIZES = {100, 1000, 4000};
+  private static final int WARMUP_ITERATIONS = 3;
+  private static final int QUERIES = 1_000_000;
+  private static final long SEED = 42L;
+
+  // workloads publish their results here so the JIT cannot drop the work that computed them
+  private static volatile long sink;
+
+  private static final com.sun.management.ThreadMXBean THREADS =
+      (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+  private interface Workload {
+    // runs one iteration, returns the number of operations performed
+    long run();
+  }
+
+  private static void measure(String name, int n, int iterations, Workload workload) {
+    for (int i = 0; i < WARMUP_ITERATIONS; ++i) {
+      workload.run();
+    }
+    long thread = Thread.currentThread().getId();
+    long ops = 0;
+    long allocatedBefore = THREADS.getThreadAllocatedBytes(thread);
+    long start = System.nanoTime();
+    for (int i = 0; i < iterations; ++i) {
+      ops += workload.run();
+    }
+    long elapsed = System.nanoTime() - start;
+    long allocated = THREADS.getThreadAllocatedBytes(thread) - allocatedBefore;
+    StdOut.printf("%-22s %6d %16.1f %14.2f %12.1f%n", name, n, ops * 1e9 / elapsed,
+        (double) allocated / ops, allocated * 1e3 / elapsed);
+  }
+
+  // site ids in uniformly random order
+  private static int[] randomOrder(int n) {
+    int[] order = new int[n * n];
+    for (int i = 0; i < order.length; ++i) {
+      order[i] = i;
+    }
+    StdRandom.shuffle(order);
+    return order;
+  }
+
+  // serpentine through the lattice from the bottom row up: every open joins the one growing
+  // component, so each union attaches a lone site to the largest tree and every find lands in it.
+  // Union by size or rank keeps that tree logarithmic whatever the order, so this stresses one
+  // hot, ever larger component rather than tree depth
+  private static int[] adversarialOrder(int n) {
+    int[] order = new int[n * n];
+    int k = 0;
+    for (int r = n - 1; r >= 0; --r) {
+      boolean leftToRight = (n - 1 - r) % 2 == 0;
+      for (int i = 0; i < n; ++i) {
+        order[k++] = r * n + (leftToRight ? i : n - 1 - i);
+      }
+    }
+    return order;
+  }
+
+  private static Workload openAll(final Percolation percolation, final int n,
+      final int[] order) {
+    return new Workload() {
+      @Override
+      public long run() {
+        percolation.reset();
+        for (int id : order) {
+          percolation.open((id / n) + 1, (id % n) + 1);
+        }
+        return order.length;
+      }
+    };
+  }
+
+  // half isFull, half isOpen, against a lattice opened up to the threshold
+  private static Workload queryMix(final Percolation percolation, final int n) {
+    final int[] rows = new int[QUERIES];
+    final int[] cols = new int[QUERIES];
+    for (int i = 0; i < QUERIES; ++i) {
+      rows[i] = StdRandom.uniformInt(n) + 1;
+      cols[i] = StdRandom.uniformInt(n) + 1;
+    }
+    return new Workload() {
+      @Override
+      public long run() {
+        int hits = 0;
+        for (int i = 0; i < QUERIES; i += 2) {
+          if (percolation.isFull(rows[i], cols[i])) {
+            ++hits;
+          }
+          if (percolation.isOpen(rows[i + 1], cols[i + 1])) {
+            ++hits;
+          }
+        }
+        sink = hits;
+        return QUERIES;
+      }
+    };
+  }
+
+  private static Workload statsTrials(final int n, final PercolationStats.Sampling sampling) {
+    return new Workload() {
+      @Override
+      public long run() {
+        sink = Double.doubleToRawLongBits(new PercolationStats(n, 1, sampling).mean());
+        return 1;
+      }
+    };
+  }
+
+  public static void main(String[] args) {
+    int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+    int[] sizes = DEFAULT_SIZES;
+    if (args.length > 1) {
+      sizes = new int[args.length - 1];
+      for (int i = 1; i < args.length; ++i) {
+        sizes[i - 1] = Integer.parseInt(args[i]);
+      }
+    }
+    StdRandom.setSeed(SEED);
+    StdOut.printf("%-22s %6s %16s %14s %12s%n", "benchmark", "n", "ops/s", "bytes/op", "MB/s");
+    for (int n : sizes) {
+      Percolation percolation = new Percolation(n);
+      measure("open.random", n, iterations, openAll(percolation, n, randomOrder(n)));
+      measure("open.adversarial", n, iterations, openAll(percolation, n, adversarialOrder(n)));
+
+      percolation.reset();
+      int[] order = randomOrder(n);
+      for (int k = 0; !percolation.percolates(); ++k) {
+        percolation.open((order[k] / n) + 1, (order[k] % n) + 1);
+      }
+      measure("query.isFull+isOpen", n, iterations, queryMix(percolation, n));
+
+      measure("stats.uniformDraw", n, iterations,
+          statsTrials(n, PercolationStats.Sampling.UNIFORM_DRAW));
+      measure("stats.shuffle", n, iterations, statsTrials(n, PercolationStats.Sampling.SHUFFLE));
+    }
+  }
+}
@@ -0,0 +1,181 @@
+import edu.princeton.cs.algs4.StdRandom;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Streams the state of a {@link Percolation} to a channel one lattice row at a time, through
+ * row-sized buffers reused for the whole image, so memory stays O(cols) whatever the
+ * lattice size. 3D lattices are written layer after layer, stacked vertically.
+ * Formats: ASCII with the labels of Percolation.toString, binary PGM (P5) and 8-bit grayscale PNG.
+ */
+public class PercolationExporter {
+
+  private static final byte FULL_ASCII = '0';
+  private static final byte BLOCKED_ASCII = 'X';
+  private static final byte EMPTY_ASCII = '_';
+  private static final int BLOCKED_GRAY = 0;
+  private static final int FULL_GRAY = 160;
+  private static final int EMPTY_GRAY = 255;
+  private static final int PNG_CHUNK = 1 << 16;
+  private static final byte[] PNG_SIGNATURE = {
+      (byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+
+  private PercolationExporter() {
+  }
+
+  private static int gray(Percolation percolation, int site) {
+    if (percolation.isFullSite(site)) {
+      return FULL_GRAY;
+    }
+    return percolation.isOpenSite(site) ? EMPTY_GRAY : BLOCKED_GRAY;
+  }
+
+  private static int imageRows(Lattice lattice) {
+    return lattice.rows() * lattice.layers();
+  }
+
+  private static void drain(ByteBuffer buffer, WritableByteChannel out) throws IOException {
+    buffer.flip();
+    while (buffer.hasRemaining()) {
+      out.write(buffer);
+    }
+    buffer.clear();
+  }
+
+  // one line per row, two characters per site as in Percolation.toString
+  public static void writeAscii(Percolation percolation, WritableByteChannel out)
+      throws IOException {
+    Lattice lattice = percolation.lattice();
+    int cols = lattice.cols();
+    ByteBuffer row = ByteBuffer.allocate(2 * cols + 1);
+    int site = 0;
+    for (int r = 0; r < imageRows(lattice); ++r) {
+      for (int c = 0; c < cols; ++c, ++site) {
+        byte label = BLOCKED_ASCII;
+        if (percolation.isFullSite(site)) {
+          label = FULL_ASCII;
+        } else if (percolation.isOpenSite(site)) {
+          label = EMPTY_ASCII;
+        }
+        row.put(label).put((byte) ' ');
+      }
+      row.put((byte) '\n');
+      drain(row, out);
+    }
+  }
+
+  // binary graymap: blocked black, open white, full gray
+  public static void writePgm(Percolation percolation, WritableByteChannel out)
+      throws IOException {
+    Lattice lattice = percolation.lattice();
+    int cols = lattice.cols();
+    String header = String.format("P5\n%d %d\n255\n", cols, imageRows(lattice));
+    drain(ByteBuffer.allocate(header.length()).put(header.getBytes(StandardCharsets.US_ASCII)),
+        out);
+    ByteBuffer row = ByteBuffer.allocate(cols);
+    int site = 0;
+    for (int r = 0; r < imageRows(lattice); ++r) {
+      for (int c = 0; c < cols; ++c, ++site) {
+        row.put((byte) gray(percolation, site));
+      }
+      drain(row, out);
+    }
+  }
+
+  // 8-bit grayscale PNG, same shades as the PGM; scanlines are deflated as they are produced and
+  // flushed in IDAT chunks of at most 64 KB
+  public static void writePng(Percolation percolation, WritableByteChannel out)
+      throws IOException {
+    Lattice lattice = percolation.lattice();
+    int cols = lattice.cols();
+    int height = imageRows(lattice);
+    ByteBuffer chunk = ByteBuffer.allocate(PNG_CHUNK + 12);
+    drain(chunk.put(PNG_SIGNATURE), out);
+
+    ByteBuffer ihdr = ByteBuffer.allocate(13);
+    // width, height, bit depth 8, color type 0 (gray), deflate, adaptive filtering, no interlace
+    ihdr.putInt(cols).putInt(height).put((byte) 8).put((byte) 0).put((byte) 0).put((byte) 0)
+        .put((byte) 0);
+    writeChunk("IHDR", ihdr.array(), 13, chunk, out);
+
+    Deflater deflater = new Deflater();
+    byte[] scanline = new byte[cols + 1];
+    byte[] compressed = new byte[PNG_CHUNK];
+    int pending = 0;
+    int site = 0;
+    try {
+      for (int r = 0; r < height; ++r) {
+        // filter type 0 (none) in front of every scanline
+        scanline[0] = 0;
+        for (int c = 0; c < cols; ++c, ++site) {
+          scanline[c + 1] = (byte) gray(percolation, site);
+        }
+        deflater.setInput(scanline);
+        while (!deflater.needsInput()) {
+          pending += deflater.deflate(compressed, pending, compressed.length - pending);
+          if (pending == compressed.length) {
+            writeChunk("IDAT", compressed, pending, chunk, out);
+            pending = 0;
+          }
+        }
+      }
+      deflater.finish();
+      while (!deflater.finished()) {
+        pending += deflater.deflate(compressed, pending, compressed.length - pending);
+        if (pending == compressed.length) {
+          writeChunk("IDAT", compressed, pending, chunk, out);
+          pending = 0;
+        }
+      }
+      if (pending > 0) {
+        writeChunk("IDAT", compressed, pending, chunk, out);
+      }
+    } finally {
+      deflater.end();
+    }
+    writeChunk("IEND", compressed, 0, chunk, out);
+  }
+
+  private static void writeChunk(String type, byte[] data, int length, ByteBuffer chunk,
+      WritableByteChannel out) throws IOException {
+    byte[] typeBytes = type.getBytes(StandardCharsets.US_ASCII);
+    CRC32 crc = new CRC32();
+    crc.update(typeBytes);
+    crc.update(data, 0, length);
+    chunk.putInt(length).put(typeBytes).put(data, 0, length).putInt((int) crc.getValue());
+    drain(chunk, out);
+  }
+
+  // exports a random n-by-n lattice opened until it percolates: n format file
+  public static void main(String[] args) throws IOException {
+    int n = Integer.parseInt(args[0]);
+    String format = args[1];
+    Percolation percolation = new Percolation(n);
+    int[] order = new int[n * n];
+    for (int i = 0; i < order.length; ++i) {
+      order[i] = i;
+    }
+    StdRandom.shuffle(order);
+    for (int k = 0; !percolation.percolates(); ++k) {
+      percolation.openSite(order[k]);
+    }
+    try (FileChannel out = FileChannel.open(Paths.get(args[2]), StandardOpenOption.CREATE,
+        StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+      if ("png".equals(format)) {
+        writePng(percolation, out);
+      } else if ("pgm".equals(format)) {
+        writePgm(percolation, out);
+      } else {
+        writeAscii(percolation, out);
+      }
+    }
+  }
+}
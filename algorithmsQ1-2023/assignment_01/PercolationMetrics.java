@@ -0,0 +1,134 @@
+import java.util.Locale;
+
+/**
+ * Counters for the percolation hot path: union-find calls and find path lengths, opens, random
+ * draws (and those wasted on sites already open), and a latency histogram of whole trials.
+ * Not thread-safe; parallel runs keep one instance per worker and {@link #merge} them.
+ */
+public class PercolationMetrics {
+
+  private long finds;
+  private long unions;
+  private long pathLengthTotal;
+  private long maxPathLength;
+  private long opens;
+  private long draws;
+  private long wastedDraws;
+  private final LogHistogram trialNanos = new LogHistogram();
+  private long firstTrialStart = Long.MAX_VALUE;
+  private long lastTrialEnd = Long.MIN_VALUE;
+
+  void recordFind(int pathLength) {
+    ++this.finds;
+    this.pathLengthTotal += pathLength;
+    this.maxPathLength = Math.max(this.maxPathLength, pathLength);
+  }
+
+  void recordUnion() {
+    ++this.unions;
+  }
+
+  void recordOpen() {
+    ++this.opens;
+  }
+
+  // one random site draw, wasted when it hit a site that was already open
+  void recordDraw(boolean wasted) {
+    ++this.draws;
+    if (wasted) {
+      ++this.wastedDraws;
+    }
+  }
+
+  // one trial that ran between the two System.nanoTime() readings
+  void recordTrial(long startNanos, long endNanos) {
+    trialNanos.record(endNanos - startNanos);
+    this.firstTrialStart = Math.min(this.firstTrialStart, startNanos);
+    this.lastTrialEnd = Math.max(this.lastTrialEnd, endNanos);
+  }
+
+  // folds the counts of other into this one
+  public void merge(PercolationMetrics other) {
+    this.finds += other.finds;
+    this.unions += other.unions;
+    this.pathLengthTotal += other.pathLengthTotal;
+    this.maxPathLength = Math.max(this.maxPathLength, other.maxPathLength);
+    this.opens += other.opens;
+    this.draws += other.draws;
+    this.wastedDraws += other.wastedDraws;
+    this.trialNanos.merge(other.trialNanos);
+    this.firstTrialStart = Math.min(this.firstTrialStart, other.firstTrialStart);
+    this.lastTrialEnd = Math.max(this.lastTrialEnd, other.lastTrialEnd);
+  }
+
+  public long finds() {
+    return this.finds;
+  }
+
+  public long unions() {
+    return this.unions;
+  }
+
+  public long opens() {
+    return this.opens;
+  }
+
+  public long draws() {
+    return this.draws;
+  }
+
+  public long wastedDraws() {
+    return this.wastedDraws;
+  }
+
+  public double findsPerOpen() {
+    return opens == 0 ? 0 : (double) finds / opens;
+  }
+
+  public double unionsPerOpen() {
+    return opens == 0 ? 0 : (double) unions / opens;
+  }
+
+  public double meanPathLength() {
+    return finds == 0 ? 0 : (double) pathLengthTotal / finds;
+  }
+
+  public long maxPathLength() {
+    return this.maxPathLength;
+  }
+
+  // latency distribution of whole trials, in nanoseconds
+  public LogHistogram trialLatency() {
+    return this.trialNanos;
+  }
+
+  // trials completed per second of wall time, from the first trial start to the last trial end
+  public double trialsPerSecond() {
+    long trials = trialNanos.count();
+    if (trials == 0 || lastTrialEnd <= firstTrialStart) {
+      return 0;
+    }
+    return trials * 1e9 / (lastTrialEnd - firstTrialStart);
+  }
+
+  public String toJson() {
+    LogHistogram latency = this.trialNanos;
+    return String.format(Locale.ROOT, "{%n"
+            + "  \"opens\": %d,%n"
+            + "  \"finds\": %d,%n"
+            + "  \"unions\": %d,%n"
+            + "  \"findsPerOpen\": %.3f,%n"
+            + "  \"unionsPerOpen\": %.3f,%n"
+            + "  \"meanPathLength\": %.3f,%n"
+            + "  \"maxPathLength\": %d,%n"
+            + "  \"draws\": %d,%n"
+            + "  \"wastedDraws\": %d,%n"
+            + "  \"trials\": %d,%n"
+            + "  \"trialsPerSecond\": %.3f,%n"
+            + "  \"trialNanos\": {\"p50\": %d, \"p90\": %d, \"p99\": %d, \"max\": %d}%n"
+            + "}",
+        opens, finds, unions, findsPerOpen(), unionsPerOpen(), meanPathLength(), maxPathLength,
+        draws, wastedDraws, latency.count(), trialsPerSecond(), latency.percentile(0.5),
+        latency.percentile(0.9), latency.percentile(0.99), latency.max());
+  }
+}
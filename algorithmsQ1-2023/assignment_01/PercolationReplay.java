@@ -0,0 +1,195 @@
+import edu.princeton.cs.algs4.In;
+import edu.princeton.cs.algs4.StdOut;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Compact binary log of the sites opened on an n-by-n {@link Percolation}, and a replayer that
+ * drives open() straight from a memory-mapped copy of the log.
+ * Layout: magic "PLOG", then n, both big-endian ints, then one record per open: the difference
+ * to the previous site id (row - 1) * n + (col - 1), zigzag encoded as an unsigned LEB128 varint.
+ * Sites close to the previous one take a single byte, no record takes more than five.
+ * Usage: java PercolationReplay record input.txt output.plog
+ *        java PercolationReplay replay input.plog
+ */
+public class PercolationReplay {
+
+  private static final int MAGIC = 0x504C4F47;
+  private static final int HEADER_BYTES = 8;
+  private static final int MAX_VARINT_BYTES = 5;
+  // mapped window size; the replayer remaps when a record could straddle the window end
+  private static final long WINDOW = 1L << 30;
+  private static final int BUFFER_SIZE = 1 << 16;
+
+  // appends opened sites to a log file
+  public static final class Recorder implements Closeable {
+
+    private final OutputStream out;
+    private final int n;
+    private int previous;
+
+    public Recorder(Path file, int n) throws IOException {
+      if (n <= 0) {
+        throw new IllegalArgumentException("n must be greater than zero, received: " + n);
+      }
+      this.n = n;
+      this.out = new BufferedOutputStream(Files.newOutputStream(file), BUFFER_SIZE);
+      writeInt(MAGIC);
+      writeInt(n);
+    }
+
+    // records the opening of site (row, col), 1-based like Percolation.open
+    public void record(int row, int col) throws IOException {
+      if (row < 1 || row > n || col < 1 || col > n) {
+        throw new IllegalArgumentException(
+            String.format("site must be between [1,%d], received: (%d, %d)", n, row, col));
+      }
+      int site = (row - 1) * n + (col - 1);
+      long delta = (long) site - previous;
+      long zigzag = (delta << 1) ^ (delta >> 63);
+      while ((zigzag & ~0x7FL) != 0) {
+        out.write((int) ((zigzag & 0x7F) | 0x80));
+        zigzag >>>= 7;
+      }
+      out.write((int) zigzag);
+      this.previous = site;
+    }
+
+    private void writeInt(int value) throws IOException {
+      out.write(value >>> 24);
+      out.write(value >>> 16);
+      out.write(value >>> 8);
+      out.write(value);
+    }
+
+    @Override
+    public void close() throws IOException {
+      out.close();
+    }
+  }
+
+  // outcome of a replay
+  public static final class Result {
+
+    private final long opens;
+    private final long percolationStep;
+    private final long nanos;
+
+    Result(long opens, long percolationStep, long nanos) {
+      this.opens = opens;
+      this.percolationStep = percolationStep;
+      this.nanos = nanos;
+    }
+
+    // number of records replayed
+    public long opens() {
+      return this.opens;
+    }
+
+    // 1-based record after which the system first percolated, -1 if it never did
+    public long percolationStep() {
+      return this.percolationStep;
+    }
+
+    // replayed opens per second
+    public double opensPerSecond() {
+      return this.nanos == 0 ? 0 : this.opens * 1e9 / this.nanos;
+    }
+  }
+
+  // replays every record of the log on a fresh Percolation
+  public static Result replay(Path file) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      long size = channel.size();
+      if (size < HEADER_BYTES) {
+        throw new IOException("not a percolation log: " + file);
+      }
+      MappedByteBuffer buffer = map(channel, 0, size);
+      if (buffer.getInt() != MAGIC) {
+        throw new IOException("not a percolation log: " + file);
+      }
+      Percolation percolation = new Percolation(buffer.getInt());
+      long base = 0;
+      long opens = 0;
+      long percolationStep = -1;
+      int site = 0;
+      long start = System.nanoTime();
+      while (base + buffer.position() < size) {
+        if (buffer.remaining() < MAX_VARINT_BYTES && base + buffer.limit() < size) {
+          base += buffer.position();
+          buffer = map(channel, base, size);
+        }
+        int recordStart = buffer.position();
+        long zigzag = 0;
+        int shift = 0;
+        byte b;
+        try {
+          do {
+            b = buffer.get();
+            zigzag |= (long) (b & 0x7F) << shift;
+            shift += 7;
+          } while (b < 0);
+        } catch (BufferUnderflowException e) {
+          throw new IOException(String.format("truncated record at offset %d of %s",
+              base + recordStart, file), e);
+        }
+        site += (int) ((zigzag >>> 1) ^ -(zigzag & 1));
+        percolation.openSite(site);
+        ++opens;
+        if (percolationStep < 0 && percolation.percolates()) {
+          percolationStep = opens;
+        }
+      }
+      return new Result(opens, percolationStep, System.nanoTime() - start);
+    }
+  }
+
+  private static MappedByteBuffer map(FileChannel channel, long from, long size)
+      throws IOException {
+    MappedByteBuffer buffer =
+        channel.map(FileChannel.MapMode.READ_ONLY, from, Math.min(WINDOW, size - from));
+    buffer.order(ByteOrder.BIG_ENDIAN);
+    return buffer;
+  }
+
+  // converts a PercolationVisualizer text input (n, then row col pairs) to a binary log
+  @SuppressWarnings("try")
+  public static long record(String textFile, Path logFile) throws IOException {
+    In in = new In(textFile);
+    long records = 0;
+    // In is not AutoCloseable, its close is registered as a resource of its own
+    try (Closeable input = in::close; Recorder recorder = new Recorder(logFile, in.readInt())) {
+      while (!in.isEmpty()) {
+        recorder.record(in.readInt(), in.readInt());
+        ++records;
+      }
+    }
+    return records;
+  }
+
+  public static void main(String[] args) throws IOException {
+    if (args.length == 3 && "record".equals(args[0])) {
+      long records = record(args[1], Paths.get(args[2]));
+      StdOut.printf("recorded %d opens, %d bytes%n", records, Files.size(Paths.get(args[2])));
+    } else if (args.length == 2 && "replay".equals(args[0])) {
+      Result result = replay(Paths.get(args[1]));
+      StdOut.printf("opens                   = %d%n", result.opens());
+      StdOut.printf("percolates at open      = %d%n", result.percolationStep());
+      StdOut.printf("opens per second        = %.0f%n", result.opensPerSecond());
+    } else {
+      StdOut.println("usage: PercolationReplay record input.txt output.plog"
+          + " | replay input.plog");
+    }
+  }
+}
@@ -1,34 +1,263 @@
 import edu.princeton.cs.algs4.StdIn;
 import edu.princeton.cs.algs4.StdOut;
-import edu.princeton.cs.algs4.StdRandom;
 import edu.princeton.cs.algs4.StdStats;
 
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.TimeUnit;
+
 public class PercolationStats {
 
   private static final boolean DEBUG = false;
+  // -Dpercolation.metrics=true collects PercolationMetrics in every mode; constant so that the
+  // instrumentation branches fold away when it is off
+  private static final boolean INSTRUMENTED = Boolean.getBoolean("percolation.metrics");
+  // trials run sequentially by one leaf task; fixed so that the task tree, and with it every
+  // random stream and the merge order, does not depend on the number of threads
+  private static final int TRIALS_PER_TASK = 8;
+  // fewer samples give a stddev estimate too noisy to stop on
+  private static final int MIN_TRIALS_BEFORE_STOP = 10;
+
+  public enum Sampling {
+    // draw uniform site ids until percolation, draws hitting open sites are wasted
+    UNIFORM_DRAW,
+    // open sites in the order of a lazily drawn random permutation, one draw per opened site
+    SHUFFLE
+  }
 
   private double med;
   private double std;
   private double conHi;
   private double conLow;
+  private long trialsRun;
+  private RunningStats moments;
+  private PercolationMetrics metrics;
 
   // perform independent trials on an n-by-n grid
   public PercolationStats(int n, int trials) {
+    this(n, trials, Sampling.UNIFORM_DRAW);
+  }
+
+  // perform independent trials choosing the sites to open with the given sampling
+  public PercolationStats(int n, int trials, Sampling sampling) {
+    this(n, trials, sampling, PercolationRandom.stdRandom());
+  }
+
+  // as above, drawing the sites from the given source instead of StdRandom
+  public PercolationStats(int n, int trials, Sampling sampling, PercolationRandom random) {
     PercolationStats.validateInput(n, trials);
-    runExperiment(n, trials);
+    if (random == null) {
+      throw new IllegalArgumentException("random source must not be null");
+    }
+    runExperiment(n, trials, sampling, random);
+  }
+
+  private PercolationStats() {
+  }
+
+  // run shuffled trials until the 95% confidence interval half-width drops below epsilon, or
+  // maxTrials trials or maxMillis milliseconds have been spent, whichever comes first
+  public static PercolationStats untilHalfWidth(int n, double epsilon, int maxTrials,
+      long maxMillis) {
+    return untilHalfWidth(n, epsilon, maxTrials, maxMillis, PercolationRandom.stdRandom());
+  }
+
+  // as above, drawing the sites from the given source instead of StdRandom
+  public static PercolationStats untilHalfWidth(int n, double epsilon, int maxTrials,
+      long maxMillis, PercolationRandom random) {
+    PercolationStats.validateInput(n, maxTrials);
+    if (!(epsilon > 0) || maxMillis <= 0) {
+      throw new IllegalArgumentException(String.format(
+          "epsilon and maxMillis must be greater than zero received %s, %d", epsilon, maxMillis));
+    }
+    if (random == null) {
+      throw new IllegalArgumentException("random source must not be null");
+    }
+    long begin = System.nanoTime();
+    // saturates, so Long.MAX_VALUE milliseconds means no time limit
+    long budget = TimeUnit.MILLISECONDS.toNanos(maxMillis);
+    RunningStats stats = new RunningStats();
+    double nSqr = n * n * 1.0;
+    PercolationMetrics metrics = INSTRUMENTED ? new PercolationMetrics() : null;
+    Percolation percolation = newPercolation(n, metrics);
+    int[] order = paddedIds(percolation);
+    while (stats.count() < maxTrials) {
+      long start = INSTRUMENTED ? System.nanoTime() : 0;
+      percolation.reset();
+      openShuffled(percolation, order, random, metrics);
+      stats.add(percolation.numberOfOpenSites() / nSqr);
+      if (INSTRUMENTED) {
+        metrics.recordTrial(start, System.nanoTime());
+      }
+      if (stats.count() >= MIN_TRIALS_BEFORE_STOP
+          && 1.96d * stats.stddev() / Math.sqrt(stats.count()) < epsilon) {
+        break;
+      }
+      if (System.nanoTime() - begin >= budget) {
+        break;
+      }
+    }
+    PercolationStats result = new PercolationStats();
+    result.summarize(stats);
+    result.metrics = metrics;
+    return result;
+  }
+
+  // perform independent trials in parallel, shuffled sampling. Results only depend on the seed,
+  // not on the parallelism
+  public PercolationStats(int n, int trials, long seed, int parallelism) {
+    this(n, trials, PercolationRandom.splittable(seed), parallelism);
+  }
+
+  // as above with any source: tasks draw from streams split off it, so results are independent of
+  // the parallelism whenever the source splits deterministically (splittable, seeded)
+  public PercolationStats(int n, int trials, PercolationRandom random, int parallelism) {
+    this(n, trials, Sampling.SHUFFLE, random, parallelism);
+  }
+
+  // as above, choosing the sites to open with the given sampling
+  public PercolationStats(int n, int trials, Sampling sampling, PercolationRandom random,
+      int parallelism) {
+    PercolationStats.validateInput(n, trials);
+    if (sampling == null || random == null) {
+      throw new IllegalArgumentException("sampling and random source must not be null");
+    }
+    ForkJoinPool pool = new ForkJoinPool(parallelism);
+    Queue<TrialBuffers> allBuffers = new ConcurrentLinkedQueue<>();
+    ThreadLocal<TrialBuffers> buffers = ThreadLocal.withInitial(() -> {
+      TrialBuffers created = new TrialBuffers(n);
+      allBuffers.add(created);
+      return created;
+    });
+    try {
+      summarize(pool.invoke(new TrialTask(n, 0, trials, sampling, random, buffers)));
+    } finally {
+      pool.shutdown();
+    }
+    if (INSTRUMENTED) {
+      this.metrics = new PercolationMetrics();
+      for (TrialBuffers pooled : allBuffers) {
+        metrics.merge(pooled.metrics);
+      }
+    }
+  }
+
+  private static Percolation newPercolation(int n, PercolationMetrics metrics) {
+    if (metrics == null) {
+      return new Percolation(n);
+    }
+    return new Percolation(Lattice.square(n), UnionFind.Kind.HALVING_SIZE, metrics);
+  }
+
+  // lattice and permutation buffers pooled per worker thread and reused by every trial it runs
+  private static final class TrialBuffers {
+
+    private final Percolation percolation;
+    private final int[] order;
+    private final PercolationMetrics metrics;
+
+    TrialBuffers(int n) {
+      this.metrics = INSTRUMENTED ? new PercolationMetrics() : null;
+      this.percolation = newPercolation(n, metrics);
+      this.order = new int[n * n];
+    }
   }
 
-  private void runExperiment(int n, int trials) {
+  private static final class TrialTask extends RecursiveTask<RunningStats> {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int n;
+    private final int from;
+    private final int to;
+    private final Sampling sampling;
+    private final PercolationRandom random;
+    private final ThreadLocal<TrialBuffers> buffers;
+
+    TrialTask(int n, int from, int to, Sampling sampling, PercolationRandom random,
+        ThreadLocal<TrialBuffers> buffers) {
+      this.n = n;
+      this.from = from;
+      this.to = to;
+      this.sampling = sampling;
+      this.random = random;
+      this.buffers = buffers;
+    }
+
+    @Override
+    protected RunningStats compute() {
+      if (to - from <= TRIALS_PER_TASK) {
+        return runTrials();
+      }
+      int mid = (from + to) >>> 1;
+      TrialTask right = new TrialTask(n, mid, to, sampling, random.split(), buffers);
+      right.fork();
+      RunningStats stats = new TrialTask(n, from, mid, sampling, random, buffers).compute();
+      stats.merge(right.join());
+      return stats;
+    }
+
+    private RunningStats runTrials() {
+      RunningStats stats = new RunningStats();
+      int nSqr = n * n;
+      TrialBuffers pooled = buffers.get();
+      Percolation percolation = pooled.percolation;
+      // the permutation restarts from the identity so a leaf's draws do not depend on what the
+      // thread ran before, which keeps the results independent of scheduling
+      int[] order = pooled.order;
+      if (sampling == Sampling.SHUFFLE) {
+        percolation.lattice().fillPadded(order);
+      }
+      for (int i = from; i < to; ++i) {
+        long start = INSTRUMENTED ? System.nanoTime() : 0;
+        percolation.reset();
+        if (sampling == Sampling.SHUFFLE) {
+          openShuffled(percolation, order, random, pooled.metrics);
+        } else {
+          openUniform(percolation, n, random, pooled.metrics);
+        }
+        stats.add((percolation.numberOfOpenSites() * 1.0) / (nSqr * 1.0));
+        if (INSTRUMENTED) {
+          pooled.metrics.recordTrial(start, System.nanoTime());
+        }
+      }
+      return stats;
+    }
+  }
+
+  private void summarize(RunningStats stats) {
+    this.moments = stats;
+    this.med = stats.mean();
+    this.std = stats.stddev();
+    double value = (1.96d * std) / Math.sqrt(stats.count());
+    this.conLow = med - value;
+    this.conHi = med + value;
+    this.trialsRun = stats.count();
+  }
+
+  private void runExperiment(int n, int trials, Sampling sampling, PercolationRandom random) {
     double[] fracs = new double[trials];
-    int nSqr = n * n;
+    RunningStats stats = new RunningStats();
+    this.metrics = INSTRUMENTED ? new PercolationMetrics() : null;
+    Percolation percolation = newPercolation(n, metrics);
+    int[] order = sampling == Sampling.SHUFFLE ? paddedIds(percolation) : null;
     for (int i = 0; i < trials; ++i) {
-      Percolation percolation = new Percolation(n);
+      long start = INSTRUMENTED ? System.nanoTime() : 0;
+      percolation.reset();
       int id = -1;
-      while (!percolation.percolates()) {
-        id = StdRandom.uniformInt(nSqr);
-        percolation.open((id / n) + 1, (id % n) + 1);
+      if (order != null) {
+        openShuffled(percolation, order, random, metrics);
+      } else {
+        id = openUniform(percolation, n, random, metrics);
       }
       fracs[i] = (percolation.numberOfOpenSites() * 1.0) / (n * n * 1.0);
+      stats.add(fracs[i]);
+      if (INSTRUMENTED) {
+        metrics.recordTrial(start, System.nanoTime());
+      }
       if (DEBUG) {
         StdOut.println(percolation);
         // PercolationVisualizer.reportCriticalSite(id / n, id % n);
@@ -41,6 +270,49 @@ public class PercolationStats {
     double value = (1.96d * std) / tsq;
     this.conLow = med - value;
     this.conHi = med + value;
+    this.trialsRun = trials;
+    this.moments = stats;
+  }
+
+  // the sites in id order as padded indices, so trials shuffle ids that open without range
+  // checks or coordinate divisions
+  private static int[] paddedIds(Percolation percolation) {
+    int[] order = new int[percolation.lattice().sites()];
+    percolation.lattice().fillPadded(order);
+    return order;
+  }
+
+  // lazy Fisher-Yates over padded ids: only the prefix actually opened gets shuffled. The order
+  // left behind by a previous trial is itself a permutation, so it is reused as is
+  private static void openShuffled(Percolation percolation, int[] order, PercolationRandom random,
+      PercolationMetrics metrics) {
+    int size = order.length;
+    for (int k = 0; !percolation.percolates(); ++k) {
+      int swap = k + random.uniformInt(size - k);
+      if (INSTRUMENTED) {
+        metrics.recordDraw(false);
+      }
+      int id = order[swap];
+      order[swap] = order[k];
+      order[k] = id;
+      percolation.openPadded(id);
+    }
+  }
+
+  // draws uniform site ids until the system percolates, opening the blocked ones. Returns the last
+  // site drawn
+  private static int openUniform(Percolation percolation, int n, PercolationRandom random,
+      PercolationMetrics metrics) {
+    int nSqr = n * n;
+    int id = -1;
+    while (!percolation.percolates()) {
+      id = random.uniformInt(nSqr);
+      if (INSTRUMENTED) {
+        metrics.recordDraw(percolation.isOpenSite(id));
+      }
+      percolation.open((id / n) + 1, (id % n) + 1);
+    }
+    return id;
   }
 
   private static void validateInput(int n, int trials) {
@@ -70,23 +342,56 @@ public class PercolationStats {
     return this.conHi;
   }
 
+  // number of trials the statistics are based on
+  public long trials() {
+    return this.trialsRun;
+  }
+
+  // count, mean and sum of squared deviations of the trials, exact for merging with other runs
+  RunningStats moments() {
+    return this.moments;
+  }
+
+  // hot-path counters, only collected when run with -Dpercolation.metrics=true, null otherwise
+  public PercolationMetrics metrics() {
+    return this.metrics;
+  }
+
   // test client (see below) {
 
   public static void main(String[] args) {
     int n;
     int trials;
-    if (args.length == 2) {
+    // n trials [sampling [threads [seed]]]: sampling is UNIFORM_DRAW or SHUFFLE, threads > 0 runs
+    // the trials in parallel, reproducibly for a given seed
+    Sampling sampling = Sampling.UNIFORM_DRAW;
+    if (args.length >= 3) {
+      try {
+        sampling = Sampling.valueOf(args[2]);
+      } catch (IllegalArgumentException e) {
+        throw new IllegalArgumentException(String.format("sampling must be one of %s, received: %s",
+            Arrays.toString(Sampling.values()), args[2]), e);
+      }
+    }
+    int threads = args.length >= 4 ? Integer.parseInt(args[3]) : 0;
+    long seed = args.length >= 5 ? Long.parseLong(args[4]) : System.nanoTime();
+    if (args.length >= 2) {
       n = Integer.parseInt(args[0]);
       trials = Integer.parseInt(args[1]);
     } else {
       n = StdIn.readInt();
       trials = StdIn.readInt();
     }
-    PercolationStats percolationStats = new PercolationStats(n, trials);
+    PercolationStats percolationStats = threads > 0
+        ? new PercolationStats(n, trials, sampling, PercolationRandom.splittable(seed), threads)
+        : new PercolationStats(n, trials, sampling);
     StdOut.printf("mean                    = %s\n", percolationStats.mean());
     StdOut.printf("stddev                  = %s\n", percolationStats.stddev());
     StdOut.printf("95%% confidence interval = [%s, %s]\n", percolationStats.confidenceLo(),
         percolationStats.confidenceHi());
+    if (percolationStats.metrics() != null) {
+      StdOut.println(percolationStats.metrics().toJson());
+    }
   }
 
 }
\ No newline at end of file
@@ -0,0 +1,210 @@
+import edu.princeton.cs.algs4.StdOut;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Resumable sweep of {@link PercolationStats} over a range of n. Trials run in chunks; after every
+ * chunk its partial moments (count, mean, sum of squared deviations) are appended to a checkpoint
+ * file, rewritten through a temporary file that is forced to disk before an atomic rename, so a
+ * crash leaves either the old or the new checkpoint, never a torn one. A restarted sweep skips the
+ * chunks already in the checkpoint. Chunk seeds derive from (seed, n, chunk), so a resumed sweep
+ * gives the same table as an uninterrupted one. The checkpoint starts with a header holding the
+ * parameters its chunks depend on; resuming with different ones is refused.
+ * Usage: java PercolationSweep nFrom nTo nStep trials chunkTrials checkpoint output [seed]
+ * [threads]. The output is JSON when its name ends in .json, CSV otherwise.
+ */
+public class PercolationSweep {
+
+  private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+  // chunks always run the parallel, shuffled trials
+  private static final PercolationStats.Sampling SAMPLING = PercolationStats.Sampling.SHUFFLE;
+
+  private final int nFrom;
+  private final int nTo;
+  private final int nStep;
+  private final int trials;
+  private final int chunkTrials;
+  private final Path checkpoint;
+  private final long seed;
+  private final int threads;
+  // first checkpoint line: the parameters every chunk result depends on
+  private final String header;
+  // checkpoint lines after the header, in the order they were written
+  private final List<String> lines = new ArrayList<>();
+  // n -> chunk index -> partial moments
+  private final Map<Integer, Map<Integer, RunningStats>> done = new HashMap<>();
+
+  public PercolationSweep(int nFrom, int nTo, int nStep, int trials, int chunkTrials,
+      Path checkpoint, long seed, int threads) throws IOException {
+    if (nFrom <= 0 || nTo < nFrom || nStep <= 0 || trials <= 0 || chunkTrials <= 0
+        || threads <= 0) {
+      throw new IllegalArgumentException(String.format(
+          "invalid sweep n=[%d,%d] step %d, trials %d, chunk %d, threads %d",
+          nFrom, nTo, nStep, trials, chunkTrials, threads));
+    }
+    this.nFrom = nFrom;
+    this.nTo = nTo;
+    this.nStep = nStep;
+    this.trials = trials;
+    this.chunkTrials = chunkTrials;
+    this.checkpoint = checkpoint;
+    this.seed = seed;
+    this.threads = threads;
+    this.header = String.format("# trials %d chunk %d seed %d sampling %s", trials, chunkTrials,
+        seed, SAMPLING);
+    if (Files.exists(checkpoint)) {
+      List<String> saved = Files.readAllLines(checkpoint, StandardCharsets.UTF_8);
+      if (!saved.isEmpty() && !header.equals(saved.get(0))) {
+        throw new IllegalArgumentException(String.format(
+            "checkpoint %s was written by a different sweep: found \"%s\", expected \"%s\"",
+            checkpoint, saved.get(0), header));
+      }
+      for (String line : saved.subList(Math.min(1, saved.size()), saved.size())) {
+        if (!line.isEmpty()) {
+          load(line);
+        }
+      }
+    }
+  }
+
+  // line format after the header: n chunk count mean m2, doubles in hex so they round-trip
+  // exactly
+  private void load(String line) {
+    String[] fields = line.trim().split(" ");
+    if (fields.length != 5) {
+      throw new IllegalArgumentException("corrupt checkpoint line: " + line);
+    }
+    RunningStats stats = new RunningStats(Long.parseLong(fields[2]),
+        Double.parseDouble(fields[3]), Double.parseDouble(fields[4]));
+    chunksOf(Integer.parseInt(fields[0])).put(Integer.parseInt(fields[1]), stats);
+    lines.add(line);
+  }
+
+  private Map<Integer, RunningStats> chunksOf(int n) {
+    Map<Integer, RunningStats> chunks = done.get(n);
+    if (chunks == null) {
+      chunks = new HashMap<>();
+      done.put(n, chunks);
+    }
+    return chunks;
+  }
+
+  private void append(int n, int chunk, RunningStats stats) throws IOException {
+    String line = String.format("%d %d %d %s %s", n, chunk, stats.count(),
+        Double.toHexString(stats.mean()), Double.toHexString(stats.m2()));
+    lines.add(line);
+    StringBuilder text = new StringBuilder(header).append('\n');
+    for (String saved : lines) {
+      text.append(saved).append('\n');
+    }
+    Path tmp = checkpoint.resolveSibling(checkpoint.getFileName() + ".tmp");
+    try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE,
+        StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+      ByteBuffer bytes = ByteBuffer.wrap(text.toString().getBytes(StandardCharsets.UTF_8));
+      while (bytes.hasRemaining()) {
+        channel.write(bytes);
+      }
+      // the rename must not reach the disk before the data it publishes
+      channel.force(true);
+    }
+    Files.move(tmp, checkpoint, StandardCopyOption.ATOMIC_MOVE,
+        StandardCopyOption.REPLACE_EXISTING);
+    chunksOf(n).put(chunk, stats);
+  }
+
+  private RunningStats runChunk(int n, int chunk, int count) {
+    long chunkSeed = seed + GOLDEN_GAMMA * (((long) n << 32) | chunk);
+    return new PercolationStats(n, count, chunkSeed, threads).moments();
+  }
+
+  // runs every chunk missing from the checkpoint, returns the merged moments per n, in n order
+  public Map<Integer, RunningStats> run() throws IOException {
+    Map<Integer, RunningStats> results = new TreeMap<>();
+    int chunks = (trials + chunkTrials - 1) / chunkTrials;
+    for (int n = nFrom; n <= nTo; n += nStep) {
+      Map<Integer, RunningStats> finished = chunksOf(n);
+      RunningStats total = new RunningStats();
+      for (int chunk = 0; chunk < chunks; ++chunk) {
+        RunningStats stats = finished.get(chunk);
+        if (stats == null) {
+          int count = Math.min(chunkTrials, trials - chunk * chunkTrials);
+          stats = runChunk(n, chunk, count);
+          append(n, chunk, stats);
+          StdOut.printf("n = %d chunk %d/%d done%n", n, chunk + 1, chunks);
+        }
+        total.merge(stats);
+      }
+      results.put(n, total);
+    }
+    return results;
+  }
+
+  private static double halfWidth(RunningStats stats) {
+    return 1.96d * stats.stddev() / Math.sqrt(stats.count());
+  }
+
+  // JSON has no NaN: the stddev and interval of a single trial are written as null
+  private static String jsonNumber(double x) {
+    return Double.isFinite(x) ? Double.toString(x) : "null";
+  }
+
+  // n, trials, mean, stddev, 95% interval per row; JSON array when the name ends in .json
+  public static void write(Map<Integer, RunningStats> results, Path output) throws IOException {
+    boolean json = output.getFileName().toString().endsWith(".json");
+    List<String> out = new ArrayList<>();
+    if (json) {
+      out.add("[");
+    } else {
+      out.add("n,trials,mean,stddev,confidenceLo,confidenceHi");
+    }
+    int row = 0;
+    for (Map.Entry<Integer, RunningStats> entry : results.entrySet()) {
+      RunningStats stats = entry.getValue();
+      double half = halfWidth(stats);
+      if (json) {
+        out.add(String.format(Locale.ROOT,
+            "  {\"n\": %d, \"trials\": %d, \"mean\": %s, \"stddev\": %s, \"confidenceLo\": %s,"
+                + " \"confidenceHi\": %s}%s",
+            entry.getKey(), stats.count(), jsonNumber(stats.mean()), jsonNumber(stats.stddev()),
+            jsonNumber(stats.mean() - half), jsonNumber(stats.mean() + half),
+            ++row < results.size() ? "," : ""));
+      } else {
+        out.add(String.format(Locale.ROOT, "%d,%d,%s,%s,%s,%s", entry.getKey(), stats.count(),
+            stats.mean(), stats.stddev(), stats.mean() - half, stats.mean() + half));
+      }
+    }
+    if (json) {
+      out.add("]");
+    }
+    Files.write(output, out, StandardCharsets.UTF_8);
+  }
+
+  public static void main(String[] args) throws IOException {
+    if (args.length < 7) {
+      StdOut.println("usage: PercolationSweep nFrom nTo nStep trials chunkTrials checkpoint"
+          + " output [seed] [threads]");
+      return;
+    }
+    long seed = args.length > 7 ? Long.parseLong(args[7]) : 42L;
+    int threads = args.length > 8 ? Integer.parseInt(args[8])
+        : Runtime.getRuntime().availableProcessors();
+    PercolationSweep sweep = new PercolationSweep(Integer.parseInt(args[0]),
+        Integer.parseInt(args[1]), Integer.parseInt(args[2]), Integer.parseInt(args[3]),
+        Integer.parseInt(args[4]), Paths.get(args[5]), seed, threads);
+    write(sweep.run(), Paths.get(args[6]));
+  }
+}
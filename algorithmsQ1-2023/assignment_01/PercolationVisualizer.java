@@ -18,6 +18,9 @@ TAKEN FROM https://www.cs.princeton.edu/courses/archive/spring22/cos226/assignme
  *  open sites (that aren't full) in white, and blocked sites in black,
  *  with with site (0, 0) in the upper left-hand corner.
  *
+ *  With a second argument "incremental" only the cells whose color
+ *  changed since the previous frame are redrawn.
+ *
  **************************************************************************** */
 
 import edu.princeton.cs.algs4.In;
@@ -25,12 +28,16 @@ import edu.princeton.cs.algs4.StdDraw;
 
 import java.awt.Color;
 import java.awt.Font;
+import java.util.Arrays;
 
 public class PercolationVisualizer {
 
   // delay in milliseconds (controls animation speed)
   private static final int DELAY = 0;
   private static final int[] critiSite = {-1, -1};
+  private static final byte BLOCKED = 0;
+  private static final byte EMPTY = 1;
+  private static final byte FULL = 2;
 
   static void reportCriticalSite(int r, int c) {
     critiSite[0] = r;
@@ -64,6 +71,62 @@ public class PercolationVisualizer {
 
   }
 
+  // redraw after opening (row, col), 1-based, touching only the cells that changed. A cell only
+  // changes when it is the opened site or when it became full through it, and every such cell is
+  // reachable from the opened site through open cells that changed too, so a flood fill bounded by
+  // unchanged cells finds them all. drawn holds the state last drawn for each cell.
+  public static void drawIncremental(Percolation percolation, int n, int row, int col,
+      byte[] drawn) {
+    int[] stack = new int[16];
+    int top = 0;
+    stack[top++] = (row - 1) * n + (col - 1);
+    while (top > 0) {
+      int site = stack[--top];
+      int r = site / n;
+      int c = site % n;
+      byte state = cellState(percolation, r, c);
+      if (state == drawn[site]) {
+        continue;
+      }
+      drawn[site] = state;
+      fillColoredSite(n, r, c, stateColor(state));
+      if (top + 4 > stack.length) {
+        stack = Arrays.copyOf(stack, stack.length * 2);
+      }
+      if (r > 0) stack[top++] = site - n;
+      if (r < n - 1) stack[top++] = site + n;
+      if (c > 0) stack[top++] = site - 1;
+      if (c < n - 1) stack[top++] = site + 1;
+    }
+    attemptMarkCriticalSite(n);
+    drawStatus(percolation, n);
+  }
+
+  private static byte cellState(Percolation percolation, int row, int col) {
+    if (percolation.isFull(row + 1, col + 1)) {
+      return FULL;
+    }
+    return percolation.isOpen(row + 1, col + 1) ? EMPTY : BLOCKED;
+  }
+
+  private static Color stateColor(byte state) {
+    if (state == FULL) {
+      return StdDraw.BOOK_LIGHT_BLUE;
+    }
+    return state == EMPTY ? StdDraw.WHITE : StdDraw.BLACK;
+  }
+
+  // status line below the grid, painted over the previous one
+  private static void drawStatus(Percolation percolation, int n) {
+    StdDraw.setPenColor(StdDraw.WHITE);
+    StdDraw.filledRectangle(n / 2.0, -0.025 * n, 0.55 * n, 0.025 * n);
+    StdDraw.setFont(new Font("SansSerif", Font.PLAIN, 12));
+    StdDraw.setPenColor(StdDraw.BLACK);
+    StdDraw.text(0.25 * n, -0.025 * n, percolation.numberOfOpenSites() + " open sites");
+    if (percolation.percolates()) StdDraw.text(0.75 * n, -0.025 * n, "percolates");
+    else StdDraw.text(0.75 * n, -0.025 * n, "does not percolate");
+  }
+
   private static void attemptMarkCriticalSite(int n) {
     if(critiSite[0] >= 0 && critiSite[1] >=0) {
       fillColoredSite(n, critiSite[0], critiSite[1], StdDraw.RED);
@@ -85,7 +148,7 @@ public class PercolationVisualizer {
     return StdDraw.BLACK;
   }
 
-  private static void simulateFromFile(String filename) {
+  private static void simulateFromFile(String filename, boolean incremental) {
     In in = new In(filename);
     int n = in.readInt();
     Percolation percolation = new Percolation(n);
@@ -97,12 +160,18 @@ public class PercolationVisualizer {
     draw(percolation, n);
     StdDraw.show();
     StdDraw.pause(DELAY);
+    // every cell starts blocked, which is what the full draw above painted
+    byte[] drawn = incremental ? new byte[n * n] : null;
 
     while (!in.isEmpty()) {
       int row = in.readInt();
       int col = in.readInt();
       percolation.open(row, col);
-      draw(percolation, n);
+      if (incremental) {
+        drawIncremental(percolation, n, row, col, drawn);
+      } else {
+        draw(percolation, n);
+      }
       StdDraw.show();
       StdDraw.pause(DELAY);
     }
@@ -110,6 +179,6 @@ public class PercolationVisualizer {
 
   public static void main(String[] args) {
     String filename = args[0];
-    simulateFromFile(filename);
+    simulateFromFile(filename, args.length > 1 && "incremental".equals(args[1]));
   }
 }
\ No newline at end of file
@@ -0,0 +1,66 @@
+/**
+ * Streaming mean and variance (Welford). Partial results of independent runs are combined with
+ * {@link #merge(RunningStats)} (Chan et al.), so per-worker moments can be reduced without keeping
+ * the samples.
+ */
+public class RunningStats {
+
+  private long count;
+  private double mean;
+  private double m2;
+
+  public RunningStats() {
+  }
+
+  RunningStats(long count, double mean, double m2) {
+    this.count = count;
+    this.mean = mean;
+    this.m2 = m2;
+  }
+
+  // adds one sample
+  public void add(double value) {
+    ++this.count;
+    double delta = value - this.mean;
+    this.mean += delta / this.count;
+    this.m2 += delta * (value - this.mean);
+  }
+
+  // folds the samples summarized by other into this one
+  public void merge(RunningStats other) {
+    if (other.count == 0) {
+      return;
+    }
+    if (this.count == 0) {
+      this.count = other.count;
+      this.mean = other.mean;
+      this.m2 = other.m2;
+      return;
+    }
+    long total = this.count + other.count;
+    double delta = other.mean - this.mean;
+    this.mean += delta * other.count / total;
+    this.m2 += other.m2 + delta * delta * ((double) this.count * other.count / total);
+    this.count = total;
+  }
+
+  // number of samples
+  public long count() {
+    return this.count;
+  }
+
+  // sample mean
+  public double mean() {
+    return this.mean;
+  }
+
+  // sum of squared deviations from the mean
+  double m2() {
+    return this.m2;
+  }
+
+  // sample standard deviation, NaN with fewer than two samples
+  public double stddev() {
+    return Math.sqrt(this.m2 / (this.count - 1));
+  }
+}
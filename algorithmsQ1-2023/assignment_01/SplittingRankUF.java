@@ -0,0 +1,64 @@
+public class SplittingRankUF implements UnionFind {
+
+  private final int[] parent;
+  private final int[] rank;
+  private int count;
+
+  public SplittingRankUF(int n) {
+    this.parent = new int[n];
+    this.rank = new int[n];
+    for (int i = 0; i < n; ++i) {
+      parent[i] = i;
+    }
+    this.count = n;
+  }
+
+  @Override
+  public int find(int p) {
+    int[] par = this.parent;
+    while (p != par[p]) {
+      int next = par[p];
+      par[p] = par[next];
+      p = next;
+    }
+    return p;
+  }
+
+  @Override
+  public boolean union(int p, int q) {
+    int rootP = find(p);
+    int rootQ = find(q);
+    if (rootP == rootQ) {
+      return false;
+    }
+    if (rank[rootP] < rank[rootQ]) {
+      parent[rootP] = rootQ;
+    } else if (rank[rootP] > rank[rootQ]) {
+      parent[rootQ] = rootP;
+    } else {
+      parent[rootQ] = rootP;
+      ++rank[rootP];
+    }
+    --this.count;
+    return true;
+  }
+
+  @Override
+  public void reset(int p) {
+    if (parent[p] != p) {
+      parent[p] = p;
+      ++this.count;
+    }
+    rank[p] = 0;
+  }
+
+  @Override
+  public int parent(int p) {
+    return parent[p];
+  }
+
+  @Override
+  public int count() {
+    return this.count;
+  }
+}
@@ -0,0 +1,267 @@
+import edu.princeton.cs.algs4.StdOut;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * One n-by-n percolation realization labelled by several threads. The grid is cut into horizontal
+ * strips; each worker opens and unions the sites of its strip in a local union-find, then records
+ * which local component every site of the strip's first and last row belongs to. A short serial
+ * merge phase unions those boundary slots across neighboring strips, together with a virtual top,
+ * which answers fullness per boundary component. There is deliberately no virtual bottom, it would
+ * backwash fullness into every bottom-row component; the system percolates when any bottom-row
+ * slot of the last strip is full.
+ * A site is full when its local component owns a boundary slot connected to the virtual top;
+ * components touching no strip boundary can never be full.
+ * The open sites are fixed at construction. Queries are not thread-safe.
+ */
+public class StripPercolation {
+
+  // a strip is limited to what one int-indexed union-find can address
+  private static final int MAX_STRIP_SITES = Integer.MAX_VALUE - 8;
+  private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+  // decides which sites are open; called concurrently from the workers
+  public interface SiteSource {
+    boolean isOpen(int row, int col);
+  }
+
+  private static final class Strip {
+
+    private final int firstRow;
+    private final int rows;
+    private final BitSet open;
+    private final UnionFind uf;
+    // sorted (local root << 32 | boundary slot) pairs, one per open site of the boundary rows
+    private long[] rootSlots;
+    private long openCount;
+
+    Strip(int firstRow, int rows, int n) {
+      this.firstRow = firstRow;
+      this.rows = rows;
+      this.open = new BitSet(rows * n);
+      this.uf = new PackedRankUF(rows * n);
+    }
+  }
+
+  private final int n;
+  private final int rowsPerStrip;
+  private final Strip[] strips;
+  private final BitSet fullSlots;
+  private final boolean percolating;
+  private final long openSites;
+
+  // labels the lattice defined by sites using the given number of worker threads
+  public StripPercolation(int n, final SiteSource sites, int threads) {
+    if (n <= 0 || threads <= 0) {
+      throw new IllegalArgumentException(
+          String.format("n and threads must be greater than zero received %d, %d", n, threads));
+    }
+    this.n = n;
+    int rowsLimit = MAX_STRIP_SITES / n;
+    int stripCount = Math.max(Math.min(threads, n), (n + rowsLimit - 1) / rowsLimit);
+    this.rowsPerStrip = (n + stripCount - 1) / stripCount;
+    stripCount = (n + rowsPerStrip - 1) / rowsPerStrip;
+    this.strips = new Strip[stripCount];
+
+    ExecutorService workers = Executors.newFixedThreadPool(Math.min(threads, stripCount));
+    try {
+      Future<?>[] pending = new Future<?>[stripCount];
+      for (int s = 0; s < stripCount; ++s) {
+        final int index = s;
+        pending[s] = workers.submit(new Runnable() {
+          @Override
+          public void run() {
+            strips[index] = label(index, sites);
+          }
+        });
+      }
+      for (Future<?> future : pending) {
+        future.get();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("interrupted while labelling strips", e);
+    } catch (ExecutionException e) {
+      throw new IllegalStateException("strip labelling failed", e.getCause());
+    } finally {
+      workers.shutdown();
+    }
+
+    int boundarySlots = stripCount * 2 * n;
+    int virtualTop = boundarySlots;
+    UnionFind global = new PackedRankUF(boundarySlots + 1);
+    long opened = 0;
+    for (int s = 0; s < stripCount; ++s) {
+      Strip strip = strips[s];
+      opened += strip.openCount;
+      long[] pairs = strip.rootSlots;
+      for (int i = 1; i < pairs.length; ++i) {
+        if ((pairs[i] >>> 32) == (pairs[i - 1] >>> 32)) {
+          global.union((int) pairs[i], (int) pairs[i - 1]);
+        }
+      }
+      for (int c = 0; c < n; ++c) {
+        if (s == 0 && strip.open.get(c)) {
+          global.union(virtualTop, topSlot(s, c));
+        }
+        int lastRow = (strip.rows - 1) * n + c;
+        if (s < stripCount - 1 && strip.open.get(lastRow) && strips[s + 1].open.get(c)) {
+          global.union(bottomSlot(s, c), topSlot(s + 1, c));
+        }
+      }
+    }
+    this.openSites = opened;
+    this.fullSlots = new BitSet(boundarySlots);
+    int topRoot = global.find(virtualTop);
+    for (int slot = 0; slot < boundarySlots; ++slot) {
+      if (global.find(slot) == topRoot) {
+        fullSlots.set(slot);
+      }
+    }
+    Strip last = strips[stripCount - 1];
+    int lastRow = (last.rows - 1) * n;
+    boolean reachesBottom = false;
+    for (int c = 0; c < n && !reachesBottom; ++c) {
+      reachesBottom = last.open.get(lastRow + c) && fullSlots.get(bottomSlot(stripCount - 1, c));
+    }
+    this.percolating = reachesBottom;
+  }
+
+  // each site open independently with probability p, decided by a stateless hash of (seed, site)
+  // so that the realization does not depend on the number of threads
+  public static StripPercolation random(final int n, double p, final long seed, int threads) {
+    if (!(p >= 0 && p <= 1)) {
+      throw new IllegalArgumentException("p must be between [0,1], received: " + p);
+    }
+    // compare the top 53 bits of the hash against p scaled to the same range
+    final long threshold = (long) (p * (1L << 53));
+    return new StripPercolation(n, new SiteSource() {
+      @Override
+      public boolean isOpen(int row, int col) {
+        long id = (long) (row - 1) * n + (col - 1);
+        return (mix64(seed + id * GOLDEN_GAMMA) >>> 11) < threshold;
+      }
+    }, threads);
+  }
+
+  // SplitMix64 finalizer
+  private static long mix64(long z) {
+    z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+    z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+    return z ^ (z >>> 31);
+  }
+
+  private int topSlot(int strip, int col) {
+    return strip * 2 * n + col;
+  }
+
+  private int bottomSlot(int strip, int col) {
+    return strip * 2 * n + n + col;
+  }
+
+  private Strip label(int index, SiteSource sites) {
+    int firstRow = index * rowsPerStrip;
+    int rows = Math.min(rowsPerStrip, n - firstRow);
+    Strip strip = new Strip(firstRow, rows, n);
+    BitSet open = strip.open;
+    UnionFind uf = strip.uf;
+    long count = 0;
+    for (int r = 0; r < rows; ++r) {
+      for (int c = 0; c < n; ++c) {
+        if (!sites.isOpen(firstRow + r + 1, c + 1)) {
+          continue;
+        }
+        int id = r * n + c;
+        open.set(id);
+        ++count;
+        if (c > 0 && open.get(id - 1)) {
+          uf.union(id, id - 1);
+        }
+        if (r > 0 && open.get(id - n)) {
+          uf.union(id, id - n);
+        }
+      }
+    }
+    strip.openCount = count;
+
+    long[] pairs = new long[2 * n];
+    int size = 0;
+    int lastRow = (rows - 1) * n;
+    for (int c = 0; c < n; ++c) {
+      if (open.get(c)) {
+        pairs[size++] = (long) uf.find(c) << 32 | topSlot(index, c);
+      }
+      if (open.get(lastRow + c)) {
+        pairs[size++] = (long) uf.find(lastRow + c) << 32 | bottomSlot(index, c);
+      }
+    }
+    strip.rootSlots = Arrays.copyOf(pairs, size);
+    Arrays.sort(strip.rootSlots);
+    return strip;
+  }
+
+  private void validate(int row, int col) {
+    if (row < 1 || row > n) {
+      throw new IllegalArgumentException(
+          String.format("row must be between [1,%d], received: %d", n, row));
+    }
+    if (col < 1 || col > n) {
+      throw new IllegalArgumentException(
+          String.format("col must be between [1,%d], received: %d", n, col));
+    }
+  }
+
+  // is the site (row, col) open?
+  public boolean isOpen(int row, int col) {
+    validate(row, col);
+    Strip strip = strips[(row - 1) / rowsPerStrip];
+    return strip.open.get((row - 1 - strip.firstRow) * n + col - 1);
+  }
+
+  // is the site (row, col) full?
+  public boolean isFull(int row, int col) {
+    validate(row, col);
+    Strip strip = strips[(row - 1) / rowsPerStrip];
+    int id = (row - 1 - strip.firstRow) * n + col - 1;
+    if (!strip.open.get(id)) {
+      return false;
+    }
+    long root = strip.uf.find(id);
+    long[] pairs = strip.rootSlots;
+    // first pair of this root, if the component reaches a boundary row at all
+    int pos = Arrays.binarySearch(pairs, root << 32);
+    if (pos < 0) {
+      pos = -pos - 1;
+    }
+    return pos < pairs.length && (pairs[pos] >>> 32) == root && fullSlots.get((int) pairs[pos]);
+  }
+
+  // returns the number of open sites
+  public long numberOfOpenSites() {
+    return this.openSites;
+  }
+
+  // does the system percolate?
+  public boolean percolates() {
+    return this.percolating;
+  }
+
+  public static void main(String[] args) {
+    int n = args.length > 0 ? Integer.parseInt(args[0]) : 4000;
+    double p = args.length > 1 ? Double.parseDouble(args[1]) : 0.5927;
+    int threads = args.length > 2 ? Integer.parseInt(args[2])
+        : Runtime.getRuntime().availableProcessors();
+    long seed = args.length > 3 ? Long.parseLong(args[3]) : 42L;
+    long start = System.nanoTime();
+    StripPercolation percolation = StripPercolation.random(n, p, seed, threads);
+    long elapsed = System.nanoTime() - start;
+    StdOut.printf("n = %d, p = %s, threads = %d%n", n, p, threads);
+    StdOut.printf("open sites = %d, percolates = %s, %.1f ms%n", percolation.numberOfOpenSites(),
+        percolation.percolates(), elapsed / 1e6);
+  }
+}
@@ -0,0 +1,60 @@
+/**
+ * Primitive union-find used by {@link Percolation}. Implementations skip argument validation, the
+ * callers own the index range.
+ */
+public interface UnionFind {
+
+  // canonical site of the component containing p
+  int find(int p);
+
+  // merges the components of p and q, returns false when they were already connected
+  boolean union(int p, int q);
+
+  // immediate parent of p, p itself for a root; does not compress
+  int parent(int p);
+
+  // number of components
+  int count();
+
+  // makes p a singleton again. Only meaningful when every site of p's component is reset, as a
+  // whole, which also restores count()
+  void reset(int p);
+
+  // are p and q in the same component?
+  default boolean connected(int p, int q) {
+    return find(p) == find(q);
+  }
+
+  enum Kind {
+    // path halving, union by size: int parent + int size per site
+    HALVING_SIZE {
+      @Override
+      public UnionFind create(int n) {
+        return new HalvingSizeUF(n);
+      }
+    },
+    // path splitting, union by rank: int parent + int rank per site
+    SPLITTING_RANK {
+      @Override
+      public UnionFind create(int n) {
+        return new SplittingRankUF(n);
+      }
+    },
+    // path halving, union by rank kept in a byte: int parent + byte rank per site
+    BYTE_RANK {
+      @Override
+      public UnionFind create(int n) {
+        return new ByteRankUF(n);
+      }
+    },
+    // path halving, union by rank packed into the parent entry of roots: one int per site
+    PACKED_RANK {
+      @Override
+      public UnionFind create(int n) {
+        return new PackedRankUF(n);
+      }
+    };
+
+    public abstract UnionFind create(int n);
+  }
+}
@@ -0,0 +1,50 @@
+import edu.princeton.cs.algs4.StdOut;
+import edu.princeton.cs.algs4.StdRandom;
+
+/**
+ * Compares the {@link UnionFind.Kind} implementations on full percolation trials.
+ * Usage: java UnionFindBenchmark [trials] [n ...], defaults to 3 trials on n = 1000, 2000, 5000,
+ * 10000.
+ */
+public class UnionFindBenchmark {
+
+  private static final int[] DEFAULT_SIZES = {1000, 2000, 5000, 10000};
+  private static final long SEED = 42L;
+
+  private static long runTrial(int n, UnionFind.Kind kind) {
+    Percolation percolation = new Percolation(n, kind);
+    int nSqr = n * n;
+    while (!percolation.percolates()) {
+      int id = StdRandom.uniformInt(nSqr);
+      percolation.open((id / n) + 1, (id % n) + 1);
+    }
+    return percolation.numberOfOpenSites();
+  }
+
+  public static void main(String[] args) {
+    int trials = args.length > 0 ? Integer.parseInt(args[0]) : 3;
+    int[] sizes = DEFAULT_SIZES;
+    if (args.length > 1) {
+      sizes = new int[args.length - 1];
+      for (int i = 1; i < args.length; ++i) {
+        sizes[i - 1] = Integer.parseInt(args[i]);
+      }
+    }
+    StdOut.printf("%-16s %8s %12s %12s%n", "kind", "n", "ms/trial", "ns/open");
+    for (int n : sizes) {
+      for (UnionFind.Kind kind : UnionFind.Kind.values()) {
+        // warm up on a small grid so the first kind measured is not penalized by the JIT
+        runTrial(Math.min(n, 200), kind);
+        StdRandom.setSeed(SEED);
+        long opened = 0;
+        long start = System.nanoTime();
+        for (int t = 0; t < trials; ++t) {
+          opened += runTrial(n, kind);
+        }
+        long elapsed = System.nanoTime() - start;
+        StdOut.printf("%-16s %8d %12.1f %12.1f%n", kind, n, elapsed / 1e6 / trials,
+            (double) elapsed / opened);
+      }
+    }
+  }
+}
@@ -0,0 +1,132 @@
+import edu.princeton.cs.algs4.StdOut;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Thread-safe {@link Deque} with no lock: every operation is a lock-free CAS sequence on a
+ * java.util.concurrent.ConcurrentLinkedDeque, so threads working at either end never block one
+ * another. The backing deque has an O(n) size(), so the size is kept in a striped counter.
+ * Concurrency semantics, replacing the single-threaded contract where they differ:
+ * - size() is exact when the deque is quiescent; while other threads add and remove it may be
+ *   momentarily off by the number of operations in flight, never below zero.
+ * - removeFirst/removeLast throw NoSuchElementException when they find the deque empty at the
+ *   moment they look, even if another thread adds an item right after.
+ * - Iterators are weakly consistent instead of fail-fast: they never throw IllegalStateException,
+ *   return each item at most once, see every item present for the whole iteration and may or may
+ *   not see items added or removed while iterating. There is no opId, as a shared modification
+ *   counter would be the contention point this class exists to remove.
+ */
+public class ConcurrentDeque<Item> implements Iterable<Item> {
+
+    private final ConcurrentLinkedDeque<Item> items = new ConcurrentLinkedDeque<>();
+    private final LongAdder actualSize = new LongAdder();
+
+    // construct an empty deque
+    public ConcurrentDeque() {
+    }
+
+    private void checkValidItem(Item item) {
+        if (item == null) {
+            throw new IllegalArgumentException("Element must not be null");
+        }
+    }
+
+    private Item checkRemoved(Item removed) {
+        if (removed == null) {
+            throw new NoSuchElementException("Deque is empty");
+        }
+        this.actualSize.decrement();
+        return removed;
+    }
+
+    // is the deque empty?
+    public boolean isEmpty() {
+        return this.items.isEmpty();
+    }
+
+    // return the number of items on the deque
+    public int size() {
+        return (int) Math.max(0, this.actualSize.sum());
+    }
+
+    // add the item to the front
+    public void addFirst(Item item) {
+        checkValidItem(item);
+        this.items.addFirst(item);
+        this.actualSize.increment();
+    }
+
+    // add the item to the last
+    public void addLast(Item item) {
+        checkValidItem(item);
+        this.items.addLast(item);
+        this.actualSize.increment();
+    }
+
+    // remove and return the item from the front
+    public Item removeFirst() {
+        return checkRemoved(this.items.pollFirst());
+    }
+
+    // remove and return the item from the back
+    public Item removeLast() {
+        return checkRemoved(this.items.pollLast());
+    }
+
+    // return a weakly consistent iterator over items in order from front to back
+    public Iterator<Item> iterator() {
+        final Iterator<Item> iterator = this.items.iterator();
+        return new Iterator<Item>() {
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public Item next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException("No More Elements");
+                }
+                return iterator.next();
+            }
+        };
+    }
+
+    // unit testing
+    public static void main(String[] args) {
+        ConcurrentDeque<Integer> q = new ConcurrentDeque<>();
+        StdOut.printf("Queue is empty: True[%s]%n", q.isEmpty());
+        q.addFirst(1);
+        q.addFirst(2);
+        q.addLast(3);
+        StdOut.printf("size: 3->[%d]%n", q.size());
+
+        Iterator<Integer> iterator = q.iterator();
+        StdOut.printf("Read: 2[%d]%n", iterator.next());
+        q.addLast(4);
+        // weakly consistent: no exception, and the item added at the back is seen
+        StdOut.printf("Read: 1[%d]%n", iterator.next());
+        StdOut.printf("Read: 3[%d]%n", iterator.next());
+        StdOut.printf("Read: 4[%d]%n", iterator.next());
+
+        StdOut.printf("removed 2[%d]%n", q.removeFirst());
+        StdOut.printf("removed 4[%d]%n", q.removeLast());
+        StdOut.printf("removed 3[%d]%n", q.removeLast());
+        StdOut.printf("removed 1[%d]%n", q.removeLast());
+        StdOut.printf("size: 0->[%d]%n", q.size());
+
+        try {
+            q.removeFirst();
+        } catch (NoSuchElementException nse) {
+            StdOut.println("Queue is empty [" + nse.getMessage());
+        }
+        try {
+            q.addLast(null);
+        } catch (IllegalArgumentException iae) {
+            StdOut.println("must not be null [" + iae.getMessage());
+        }
+    }
+}
@@ -0,0 +1,156 @@
+import edu.princeton.cs.algs4.StdOut;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.IntConsumer;
+
+/**
+ * Multi-threaded stress test and throughput benchmark of {@link ConcurrentDeque}.
+ * The stress test runs producers adding distinct values at both ends against consumers removing
+ * from both ends, then checks that every value was removed exactly once and the deque is empty.
+ * The benchmark runs the same add/remove mix on ConcurrentDeque and on a {@link Deque} behind one
+ * lock, and reports total operations per second for each thread count.
+ * Usage: java ConcurrentDequeBenchmark [maxThreads] [opsPerThread], defaults to 8 threads and
+ * 1000000 operations; thread counts double from 1 up to maxThreads.
+ */
+public class ConcurrentDequeBenchmark {
+
+    private static final int STRESS_ROUNDS = 5;
+
+    private interface Target {
+        void addFirst(Integer value);
+
+        void addLast(Integer value);
+
+        // returns null when the deque was empty
+        Integer removeFirst();
+
+        Integer removeLast();
+    }
+
+    private static Target concurrent() {
+        final ConcurrentDeque<Integer> q = new ConcurrentDeque<>();
+        return new Target() {
+            @Override
+            public void addFirst(Integer value) {
+                q.addFirst(value);
+            }
+
+            @Override
+            public void addLast(Integer value) {
+                q.addLast(value);
+            }
+
+            @Override
+            public Integer removeFirst() {
+                try {
+                    return q.removeFirst();
+                } catch (NoSuchElementException nse) {
+                    return null;
+                }
+            }
+
+            @Override
+            public Integer removeLast() {
+                try {
+                    return q.removeLast();
+                } catch (NoSuchElementException nse) {
+                    return null;
+                }
+            }
+        };
+    }
+
+    // the global-lock baseline the concurrent deque replaces
+    private static Target locked() {
+        final Deque<Integer> q = new Deque<>();
+        return new Target() {
+            @Override
+            public synchronized void addFirst(Integer value) {
+                q.addFirst(value);
+            }
+
+            @Override
+            public synchronized void addLast(Integer value) {
+                q.addLast(value);
+            }
+
+            @Override
+            public synchronized Integer removeFirst() {
+                return q.isEmpty() ? null : q.removeFirst();
+            }
+
+            @Override
+            public synchronized Integer removeLast() {
+                return q.isEmpty() ? null : q.removeLast();
+            }
+        };
+    }
+
+    private static boolean stress(int producers, int consumers, int perProducer)
+            throws InterruptedException {
+        final ConcurrentDeque<Integer> q = new ConcurrentDeque<>();
+        boolean once = ConcurrentStress.exactlyOnce(producers, consumers, perProducer,
+                new IntConsumer() {
+                    @Override
+                    public void accept(int i) {
+                        if ((i & 1) == 0) {
+                            q.addFirst(i);
+                        } else {
+                            q.addLast(i);
+                        }
+                    }
+                }, new ConcurrentStress.Take() {
+                    @Override
+                    public int take(int c) {
+                        return (c & 1) == 0 ? q.removeFirst() : q.removeLast();
+                    }
+                });
+        return once && q.isEmpty() && q.size() == 0;
+    }
+
+    // every thread alternates adds and removes at both ends, so the deque stays small and the
+    // ends are contended
+    private static double throughput(final Target target, int threads, final int opsPerThread)
+            throws InterruptedException {
+        List<Runnable> tasks = new ArrayList<>();
+        for (int t = 0; t < threads; ++t) {
+            final Integer value = t;
+            tasks.add(new Runnable() {
+                @Override
+                public void run() {
+                    for (int i = 0; i < opsPerThread; i += 4) {
+                        target.addLast(value);
+                        target.addFirst(value);
+                        target.removeFirst();
+                        target.removeLast();
+                    }
+                }
+            });
+        }
+        long elapsed = ConcurrentStress.runAll(tasks);
+        return (double) threads * opsPerThread * 1e9 / elapsed;
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int maxThreads = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        int opsPerThread = args.length > 1 ? Integer.parseInt(args[1]) : 1_000_000;
+        boolean passed = true;
+        for (int round = 0; round < STRESS_ROUNDS; ++round) {
+            passed &= stress(Math.max(1, maxThreads / 2), Math.max(1, maxThreads / 2),
+                    opsPerThread / 4);
+        }
+        StdOut.printf("stress: %s%n", passed ? "passed" : "FAILED");
+
+        // warm up both implementations before timing
+        throughput(concurrent(), 2, opsPerThread / 4);
+        throughput(locked(), 2, opsPerThread / 4);
+        StdOut.printf("%8s %18s %18s%n", "threads", "concurrent ops/s", "locked ops/s");
+        for (int threads = 1; threads <= maxThreads; threads <<= 1) {
+            StdOut.printf("%8d %18.1f %18.1f%n", threads,
+                    throughput(concurrent(), threads, opsPerThread),
+                    throughput(locked(), threads, opsPerThread));
+        }
+    }
+}
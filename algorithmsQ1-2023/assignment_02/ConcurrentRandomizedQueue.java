@@ -0,0 +1,284 @@
+import edu.princeton.cs.algs4.StdOut;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Thread-safe {@link RandomizedQueue} split into lock-striped sub-queues. enqueue goes to the
+ * calling thread's home stripe, or to the first free stripe after it when the home one is busy,
+ * so producers rarely wait on one another. dequeue and sample pick a stripe with probability
+ * proportional to its size, then a uniform item inside it; each stripe is an array with
+ * swap-with-last removal, as in RandomizedQueue. Random numbers come from ThreadLocalRandom, so
+ * no generator is shared either.
+ * Uniformity: the stripe sizes are read one after the other without a global lock. When no other
+ * thread changes the queue during the call, every queued item is returned with probability
+ * exactly 1/size(), as in RandomizedQueue. Under concurrent changes the probabilities are those
+ * of the sizes as read, off by at most the operations in flight. Picking a random non-empty
+ * stripe instead would favour the items of small stripes whatever the load.
+ * size() is exact when quiescent and a moving estimate otherwise. Iterators walk a snapshot taken
+ * one stripe at a time, in random order: they never fail, and miss changes made after creation.
+ */
+public class ConcurrentRandomizedQueue<Item> implements Iterable<Item> {
+
+  private static final int BASE_CAPACITY = 16;
+  private static final int MAX_ARRAY_SIZE = Integer.MAX_VALUE - 8;
+
+  private static final class Stripe {
+
+    final ReentrantLock lock = new ReentrantLock();
+    Object[] items = new Object[BASE_CAPACITY];
+    // written under the lock, read without it to weight the stripe choice
+    volatile int size;
+
+    void add(Object item) {
+      int n = size;
+      if (n == items.length) {
+        int newLen = (int) Math.min((long) n << 1, MAX_ARRAY_SIZE);
+        if (newLen == n) {
+          throw new OutOfMemoryError("Max memory reached");
+        }
+        Object[] destination = new Object[newLen];
+        System.arraycopy(items, 0, destination, 0, n);
+        items = destination;
+      }
+      items[n] = item;
+      size = n + 1;
+    }
+
+    Object remove(int pos) {
+      int last = size - 1;
+      Object removed = items[pos];
+      items[pos] = items[last];
+      items[last] = null;
+      size = last;
+      if (items.length > BASE_CAPACITY && last <= items.length >>> 2) {
+        Object[] destination = new Object[items.length >>> 1];
+        System.arraycopy(items, 0, destination, 0, last);
+        items = destination;
+      }
+      return removed;
+    }
+  }
+
+  private final Stripe[] stripes;
+  private final int mask;
+
+  // construct an empty queue with one stripe per available processor, rounded up to a power of 2
+  public ConcurrentRandomizedQueue() {
+    this(Runtime.getRuntime().availableProcessors());
+  }
+
+  // construct an empty queue with at least the given number of stripes
+  public ConcurrentRandomizedQueue(int stripes) {
+    if (stripes <= 0 || stripes > 1 << 16) {
+      throw new IllegalArgumentException(
+          String.format("stripes must be between [1,%d], received: %d", 1 << 16, stripes));
+    }
+    int count = Integer.highestOneBit(stripes);
+    if (count < stripes) {
+      count <<= 1;
+    }
+    this.stripes = new Stripe[count];
+    for (int i = 0; i < count; ++i) {
+      this.stripes[i] = new Stripe();
+    }
+    this.mask = count - 1;
+  }
+
+  // is the randomized queue empty?
+  public boolean isEmpty() {
+    return size() == 0;
+  }
+
+  // return the number of items on the randomized queue
+  public int size() {
+    long total = 0;
+    for (Stripe stripe : stripes) {
+      total += stripe.size;
+    }
+    return (int) Math.min(total, Integer.MAX_VALUE);
+  }
+
+  private int homeStripe() {
+    long id = Thread.currentThread().getId() * 0x9E3779B97F4A7C15L;
+    return (int) (id ^ id >>> 32) & mask;
+  }
+
+  // add the item
+  public void enqueue(Item item) {
+    if (item == null) {
+      throw new IllegalArgumentException("item must not be null");
+    }
+    int home = homeStripe();
+    for (int i = 0; i <= mask; ++i) {
+      Stripe stripe = stripes[(home + i) & mask];
+      if (stripe.lock.tryLock()) {
+        try {
+          stripe.add(item);
+          return;
+        } finally {
+          stripe.lock.unlock();
+        }
+      }
+    }
+    // every stripe busy: wait for the home one
+    Stripe stripe = stripes[home];
+    stripe.lock.lock();
+    try {
+      stripe.add(item);
+    } finally {
+      stripe.lock.unlock();
+    }
+  }
+
+  // remove and return a random item
+  public Item dequeue() {
+    return pick(true, "queue is empty");
+  }
+
+  // return a random item (but do not remove it)
+  public Item sample() {
+    return pick(false, "Queue is empty");
+  }
+
+  @SuppressWarnings("unchecked")
+  private Item pick(boolean remove, String emptyMessage) {
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    while (true) {
+      long total = 0;
+      for (Stripe stripe : stripes) {
+        total += stripe.size;
+      }
+      if (total == 0) {
+        throw new NoSuchElementException(emptyMessage);
+      }
+      // walk the sizes again rather than keep them in an array: no allocation per call
+      long target = random.nextLong(total);
+      int chosen = 0;
+      int seen = stripes[0].size;
+      while (target >= seen && ++chosen < stripes.length) {
+        target -= seen;
+        seen = stripes[chosen].size;
+      }
+      if (chosen == stripes.length) {
+        // the stripes shrank between the two passes, draw again
+        continue;
+      }
+      Stripe stripe = stripes[chosen];
+      stripe.lock.lock();
+      try {
+        int size = stripe.size;
+        if (size > 0) {
+          // the stripe may have changed since its size was read: draw again inside it
+          int pos = size == seen ? (int) target : random.nextInt(size);
+          return (Item) (remove ? stripe.remove(pos) : stripe.items[pos]);
+        }
+      } finally {
+        stripe.lock.unlock();
+      }
+      // emptied by another thread in the meantime, draw again
+    }
+  }
+
+  // return an iterator over a snapshot of the items, in random order
+  @SuppressWarnings("unchecked")
+  public Iterator<Item> iterator() {
+    Object[] snapshot = new Object[Math.max(size(), BASE_CAPACITY)];
+    int count = 0;
+    for (Stripe stripe : stripes) {
+      stripe.lock.lock();
+      try {
+        int size = stripe.size;
+        if (count + size > snapshot.length) {
+          Object[] bigger = new Object[Math.max(count + size, snapshot.length << 1)];
+          System.arraycopy(snapshot, 0, bigger, 0, count);
+          snapshot = bigger;
+        }
+        System.arraycopy(stripe.items, 0, snapshot, count, size);
+        count += size;
+      } finally {
+        stripe.lock.unlock();
+      }
+    }
+    final Object[] items = snapshot;
+    final int total = count;
+    return new Iterator<Item>() {
+      private int index = 0;
+
+      @Override
+      public boolean hasNext() {
+        return index < total;
+      }
+
+      // one Fisher-Yates step per call, on the iterator's own copy
+      @Override
+      public Item next() {
+        if (!hasNext()) {
+          throw new NoSuchElementException("Element does not exist");
+        }
+        int swap = index + ThreadLocalRandom.current().nextInt(total - index);
+        Object picked = items[swap];
+        items[swap] = items[index];
+        items[index++] = picked;
+        return (Item) picked;
+      }
+    };
+  }
+
+  // unit testing
+  public static void main(String[] args) throws InterruptedException {
+    final ConcurrentRandomizedQueue<Integer> q = new ConcurrentRandomizedQueue<>(4);
+    // uneven producers: thread t enqueues t + 1 items, so the stripes end up with uneven sizes
+    Thread[] producers = new Thread[4];
+    for (int t = 0; t < producers.length; ++t) {
+      final int from = t * (t + 1) / 2;
+      final int count = t + 1;
+      producers[t] = new Thread(new Runnable() {
+        @Override
+        public void run() {
+          for (int i = from; i < from + count; ++i) {
+            q.enqueue(i);
+          }
+        }
+      });
+      producers[t].start();
+    }
+    for (Thread producer : producers) {
+      producer.join();
+    }
+    StdOut.println("Size{10}: " + q.size());
+    int draws = 1_000_000;
+    int[] counts = new int[10];
+    for (int i = 0; i < draws; ++i) {
+      ++counts[q.sample()];
+    }
+    double worst = 0;
+    for (int count : counts) {
+      worst = Math.max(worst, Math.abs(count / (double) draws - 0.1));
+    }
+    StdOut.printf("sample frequencies within 0.003 of 0.1: true[%s]%n", worst < 0.003);
+
+    int seen = 0;
+    for (int value : q) {
+      seen |= 1 << value;
+    }
+    StdOut.printf("iterator saw every item: true[%s]%n", seen == 0x3FF);
+
+    for (int i = 0; i < 10; ++i) {
+      q.dequeue();
+    }
+    StdOut.println("Size{0}: " + q.size());
+    try {
+      q.dequeue();
+    } catch (NoSuchElementException nse) {
+      StdOut.println("NSE " + nse.getMessage());
+    }
+    try {
+      q.enqueue(null);
+    } catch (IllegalArgumentException iae) {
+      StdOut.println("null not accepted: " + iae.getMessage());
+    }
+  }
+}
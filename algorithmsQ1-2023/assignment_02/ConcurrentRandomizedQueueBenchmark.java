@@ -0,0 +1,119 @@
+import edu.princeton.cs.algs4.StdOut;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntConsumer;
+
+/**
+ * Multi-producer / multi-consumer check and throughput benchmark of
+ * {@link ConcurrentRandomizedQueue}. The check runs producers enqueueing distinct values against
+ * consumers dequeueing, then verifies every value came out exactly once. The benchmark has every
+ * thread alternate enqueue and dequeue on a prefilled queue, on ConcurrentRandomizedQueue and on a
+ * RandomizedQueue behind one lock, and reports total operations per second. How the two scale
+ * depends on the cores available; the table header states how many the run had.
+ * Usage: java ConcurrentRandomizedQueueBenchmark [maxThreads] [opsPerThread], defaults to the
+ * number of available processors and 200000 operations; thread counts double from 1, and the
+ * last row runs maxThreads.
+ */
+public class ConcurrentRandomizedQueueBenchmark {
+
+  private static final int PREFILL = 10_000;
+
+  private interface Target {
+    void enqueue(Integer value);
+
+    Integer dequeue();
+  }
+
+  private static Target striped() {
+    final ConcurrentRandomizedQueue<Integer> q = new ConcurrentRandomizedQueue<>();
+    return new Target() {
+      @Override
+      public void enqueue(Integer value) {
+        q.enqueue(value);
+      }
+
+      @Override
+      public Integer dequeue() {
+        return q.dequeue();
+      }
+    };
+  }
+
+  // the shared, synchronized queue the striped one replaces
+  private static Target locked() {
+    final RandomizedQueue<Integer> q = new RandomizedQueue<>(RandomSource.threadLocal());
+    return new Target() {
+      @Override
+      public synchronized void enqueue(Integer value) {
+        q.enqueue(value);
+      }
+
+      @Override
+      public synchronized Integer dequeue() {
+        return q.dequeue();
+      }
+    };
+  }
+
+  private static boolean exactlyOnce(int producers, int consumers, int perProducer)
+      throws InterruptedException {
+    final ConcurrentRandomizedQueue<Integer> q = new ConcurrentRandomizedQueue<>();
+    boolean once = ConcurrentStress.exactlyOnce(producers, consumers, perProducer,
+        new IntConsumer() {
+          @Override
+          public void accept(int i) {
+            q.enqueue(i);
+          }
+        }, new ConcurrentStress.Take() {
+          @Override
+          public int take(int c) {
+            return q.dequeue();
+          }
+        });
+    return once && q.isEmpty();
+  }
+
+  private static double throughput(final Target target, int threads, final int opsPerThread)
+      throws InterruptedException {
+    for (int i = 0; i < PREFILL; ++i) {
+      target.enqueue(i);
+    }
+    List<Runnable> tasks = new ArrayList<>();
+    for (int t = 0; t < threads; ++t) {
+      tasks.add(new Runnable() {
+        @Override
+        public void run() {
+          for (int i = 0; i < opsPerThread; i += 2) {
+            target.enqueue(target.dequeue());
+          }
+        }
+      });
+    }
+    long elapsed = ConcurrentStress.runAll(tasks);
+    return (double) threads * opsPerThread * 1e9 / elapsed;
+  }
+
+  public static void main(String[] args) throws InterruptedException {
+    int processors = Runtime.getRuntime().availableProcessors();
+    int maxThreads = args.length > 0 ? Math.max(1, Integer.parseInt(args[0])) : processors;
+    int opsPerThread = args.length > 1 ? Integer.parseInt(args[1]) : 200_000;
+    int workers = Math.max(1, Math.min(maxThreads, 8) / 2);
+    StdOut.printf("exactly once: %s%n",
+        exactlyOnce(workers, workers, opsPerThread / 2) ? "passed" : "FAILED");
+
+    // warm up both implementations before timing
+    throughput(striped(), 2, opsPerThread);
+    throughput(locked(), 2, opsPerThread);
+    StdOut.printf("available processors: %d%n", processors);
+    StdOut.printf("%8s %18s %18s%n", "threads", "striped ops/s", "locked ops/s");
+    for (int threads = 1; ; threads = Math.min(threads << 1, maxThreads)) {
+      StdOut.printf("%8d %18.1f %18.1f%n", threads,
+          throughput(striped(), threads, opsPerThread),
+          throughput(locked(), threads, opsPerThread));
+      if (threads == maxThreads) {
+        break;
+      }
+    }
+  }
+}
@@ -0,0 +1,98 @@
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+
+/**
+ * Thread harness shared by {@link ConcurrentDequeBenchmark} and
+ * {@link ConcurrentRandomizedQueueBenchmark}: runs tasks on threads released together, and checks
+ * that values added by several producers are removed exactly once by several consumers.
+ */
+final class ConcurrentStress {
+
+    // removes one value on behalf of consumer c; throws NoSuchElementException while empty
+    interface Take {
+        int take(int c);
+    }
+
+    private ConcurrentStress() {
+    }
+
+    // runs every task on its own thread, released together; returns the elapsed nanoseconds
+    static long runAll(List<Runnable> tasks) throws InterruptedException {
+        final CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (final Runnable task : tasks) {
+            Thread thread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                    task.run();
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        return System.nanoTime() - begin;
+    }
+
+    // producer p puts the values p * perProducer until (p + 1) * perProducer while the consumers
+    // take until all of them are out; true when every value was taken exactly once
+    static boolean exactlyOnce(int producers, int consumers, final int perProducer,
+            final IntConsumer put, final Take take) throws InterruptedException {
+        final int total = producers * perProducer;
+        final AtomicInteger consumed = new AtomicInteger();
+        final List<BitSet> seen = new ArrayList<>();
+        List<Runnable> tasks = new ArrayList<>();
+        for (int p = 0; p < producers; ++p) {
+            final int from = p * perProducer;
+            tasks.add(new Runnable() {
+                @Override
+                public void run() {
+                    for (int i = from; i < from + perProducer; ++i) {
+                        put.accept(i);
+                    }
+                }
+            });
+        }
+        for (int c = 0; c < consumers; ++c) {
+            final BitSet mine = new BitSet(total);
+            final int consumer = c;
+            seen.add(mine);
+            tasks.add(new Runnable() {
+                @Override
+                public void run() {
+                    while (consumed.get() < total) {
+                        try {
+                            mine.set(take.take(consumer));
+                            consumed.incrementAndGet();
+                        } catch (NoSuchElementException nse) {
+                            Thread.yield();
+                        }
+                    }
+                }
+            });
+        }
+        runAll(tasks);
+        BitSet all = new BitSet(total);
+        boolean duplicates = false;
+        for (BitSet mine : seen) {
+            duplicates |= all.intersects(mine);
+            all.or(mine);
+        }
+        return !duplicates && all.cardinality() == total;
+    }
+}
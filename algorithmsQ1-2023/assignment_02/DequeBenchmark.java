@@ -0,0 +1,306 @@
+import edu.princeton.cs.algs4.StdOut;
+
+import java.lang.management.ManagementFactory;
+import java.util.PrimitiveIterator;
+import java.util.function.Supplier;
+
+/**
+ * Throughput and allocation of the deque implementations. Each benchmark is warmed up, then timed
+ * over several iterations; it reports operations per second and bytes allocated per operation
+ * (from the per-thread allocation counter of the HotSpot ThreadMXBean).
+ * Workloads on n items: queue (fill at the back, drain from the front), stack (fill at the
+ * front, drain from the front), churn (producer/consumer loop holding n items) and iterate, on
+ * Integer items and, for IntDeque, on unboxed ints. Every implementation runs the same workload
+ * code through a small adapter, so each pays the same interface call per operation.
+ * Growth pauses: the slowest single addLast while filling a fresh deque with n items, where the
+ * ring buffer pays for copying everything on its last doubling.
+ * Usage: java DequeBenchmark [iterations] [n ...], defaults to 5 iterations on n = 1000, 100000,
+ * 1000000.
+ */
+public class DequeBenchmark {
+
+    private static final int[] DEFAULT_SIZES = {1000, 100_000, 1_000_000};
+    private static final int WARMUP_ITERATIONS = 3;
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    // workloads publish their results here so the JIT cannot drop the work that computed them
+    private static volatile long sink;
+
+    private interface Workload {
+        // runs one iteration, returns the number of operations performed
+        long run();
+    }
+
+    // the deque operations the workloads use. Items are given by index: the generic deques add
+    // pre-boxed Integers, so they measure the deque and not Integer.valueOf
+    private interface Ops {
+        void addFirst(int i);
+
+        void addLast(int i);
+
+        void removeFirst();
+
+        boolean isEmpty();
+
+        // sum of the items, by iteration
+        long sum();
+    }
+
+    private static void measure(String name, int n, int iterations, Workload workload) {
+        for (int i = 0; i < WARMUP_ITERATIONS; ++i) {
+            workload.run();
+        }
+        long thread = Thread.currentThread().getId();
+        long ops = 0;
+        long allocatedBefore = THREADS.getThreadAllocatedBytes(thread);
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; ++i) {
+            ops += workload.run();
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocated = THREADS.getThreadAllocatedBytes(thread) - allocatedBefore;
+        StdOut.printf("%-22s %8d %16.1f %10.2f%n", name, n, ops * 1e9 / elapsed,
+                (double) allocated / ops);
+    }
+
+    private static void worstAdd(String name, int n, Supplier<Ops> factory) {
+        Ops q = factory.get();
+        long worst = 0;
+        for (int i = 0; i < n; ++i) {
+            long start = System.nanoTime();
+            q.addLast(i);
+            worst = Math.max(worst, System.nanoTime() - start);
+        }
+        StdOut.printf("%-22s %8d %16.1f%n", name, n, worst / 1e3);
+    }
+
+    // boxed once up front so the workloads measure the deques, not Integer.valueOf
+    private static Integer[] values(int n) {
+        Integer[] values = new Integer[n];
+        for (int i = 0; i < n; ++i) {
+            values[i] = i;
+        }
+        return values;
+    }
+
+    // queue, stack, churn and iterate on deques made by factory, reported as name.workload
+    private static void workloads(String name, final int n, int iterations,
+            final Supplier<Ops> factory) {
+        measure(name + ".queue", n, iterations, new Workload() {
+            @Override
+            public long run() {
+                Ops q = factory.get();
+                for (int i = 0; i < n; ++i) {
+                    q.addLast(i);
+                }
+                while (!q.isEmpty()) {
+                    q.removeFirst();
+                }
+                return 2L * n;
+            }
+        });
+        measure(name + ".stack", n, iterations, new Workload() {
+            @Override
+            public long run() {
+                Ops q = factory.get();
+                for (int i = 0; i < n; ++i) {
+                    q.addFirst(i);
+                }
+                while (!q.isEmpty()) {
+                    q.removeFirst();
+                }
+                return 2L * n;
+            }
+        });
+        final Ops held = factory.get();
+        for (int i = 0; i < n; ++i) {
+            held.addLast(i);
+        }
+        measure(name + ".churn", n, iterations, new Workload() {
+            @Override
+            public long run() {
+                for (int i = 0; i < n; ++i) {
+                    held.addLast(i);
+                    held.removeFirst();
+                }
+                return 2L * n;
+            }
+        });
+        measure(name + ".iterate", n, iterations, new Workload() {
+            @Override
+            public long run() {
+                sink = held.sum();
+                return n;
+            }
+        });
+    }
+
+    private static Supplier<Ops> linked(final Integer[] values) {
+        return () -> new Ops() {
+            private final Deque<Integer> q = new Deque<>();
+
+            @Override
+            public void addFirst(int i) {
+                q.addFirst(values[i]);
+            }
+
+            @Override
+            public void addLast(int i) {
+                q.addLast(values[i]);
+            }
+
+            @Override
+            public void removeFirst() {
+                q.removeFirst();
+            }
+
+            @Override
+            public boolean isEmpty() {
+                return q.isEmpty();
+            }
+
+            @Override
+            public long sum() {
+                long sum = 0;
+                for (int value : q) {
+                    sum += value;
+                }
+                return sum;
+            }
+        };
+    }
+
+    private static Supplier<Ops> ring(final Integer[] values) {
+        return () -> new Ops() {
+            private final RingDeque<Integer> q = new RingDeque<>();
+
+            @Override
+            public void addFirst(int i) {
+                q.addFirst(values[i]);
+            }
+
+            @Override
+            public void addLast(int i) {
+                q.addLast(values[i]);
+            }
+
+            @Override
+            public void removeFirst() {
+                q.removeFirst();
+            }
+
+            @Override
+            public boolean isEmpty() {
+                return q.isEmpty();
+            }
+
+            @Override
+            public long sum() {
+                long sum = 0;
+                for (int value : q) {
+                    sum += value;
+                }
+                return sum;
+            }
+        };
+    }
+
+    private static Supplier<Ops> unrolled(final Integer[] values) {
+        return () -> new Ops() {
+            private final UnrolledDeque<Integer> q = new UnrolledDeque<>();
+
+            @Override
+            public void addFirst(int i) {
+                q.addFirst(values[i]);
+            }
+
+            @Override
+            public void addLast(int i) {
+                q.addLast(values[i]);
+            }
+
+            @Override
+            public void removeFirst() {
+                q.removeFirst();
+            }
+
+            @Override
+            public boolean isEmpty() {
+                return q.isEmpty();
+            }
+
+            @Override
+            public long sum() {
+                long sum = 0;
+                for (int value : q) {
+                    sum += value;
+                }
+                return sum;
+            }
+        };
+    }
+
+    // IntDeque, where the values never become Integer objects
+    private static Supplier<Ops> primitive() {
+        return () -> new Ops() {
+            private final IntDeque q = new IntDeque();
+
+            @Override
+            public void addFirst(int i) {
+                q.addFirst(i);
+            }
+
+            @Override
+            public void addLast(int i) {
+                q.addLast(i);
+            }
+
+            @Override
+            public void removeFirst() {
+                q.removeFirst();
+            }
+
+            @Override
+            public boolean isEmpty() {
+                return q.isEmpty();
+            }
+
+            @Override
+            public long sum() {
+                long sum = 0;
+                for (PrimitiveIterator.OfInt it = q.iterator(); it.hasNext(); ) {
+                    sum += it.nextInt();
+                }
+                return sum;
+            }
+        };
+    }
+
+    public static void main(String[] args) {
+        int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+        int[] sizes = DEFAULT_SIZES;
+        if (args.length > 1) {
+            sizes = new int[args.length - 1];
+            for (int i = 1; i < args.length; ++i) {
+                sizes[i - 1] = Integer.parseInt(args[i]);
+            }
+        }
+        StdOut.printf("%-22s %8s %16s %10s%n", "benchmark", "n", "ops/s", "bytes/op");
+        for (int n : sizes) {
+            Integer[] values = values(n);
+            workloads("linked", n, iterations, linked(values));
+            workloads("ring", n, iterations, ring(values));
+            workloads("unrolled", n, iterations, unrolled(values));
+            workloads("int", n, iterations, primitive());
+        }
+        StdOut.printf("%n%-22s %8s %16s%n", "growth pause", "n", "worst addLast us");
+        for (int n : sizes) {
+            Integer[] values = values(n);
+            worstAdd("linked", n, linked(values));
+            worstAdd("ring", n, ring(values));
+            worstAdd("unrolled", n, unrolled(values));
+        }
+    }
+}
@@ -0,0 +1,187 @@
+import edu.princeton.cs.algs4.StdOut;
+
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/**
+ * {@link Deque} of double values with no boxing: the ring buffer of {@link RingDeque} over a
+ * double[]. Adds and removes take and return double, and iterator() is a
+ * PrimitiveIterator.OfDouble, so a loop calling nextDouble() never allocates. The
+ * Iterable&lt;Double&gt; view boxes, as for-each does.
+ */
+public class DoubleDeque implements Iterable<Double> {
+
+    private static final int MIN_CAPACITY = 16;
+    private static final int MAX_CAPACITY = 1 << 30;
+
+    private double[] items;
+    private int mask;
+    // index of the first item, the last one is at (head + actualSize - 1) & mask
+    private int head;
+    private int actualSize;
+    private long opId = Long.MIN_VALUE;
+
+    // construct an empty deque
+    public DoubleDeque() {
+        this(MIN_CAPACITY);
+    }
+
+    // construct an empty deque holding at least initialCapacity items before it grows
+    public DoubleDeque(int initialCapacity) {
+        if (initialCapacity < 0 || initialCapacity > MAX_CAPACITY) {
+            throw new IllegalArgumentException(String.format(
+                    "capacity must be between [0,%d], received: %d", MAX_CAPACITY,
+                    initialCapacity));
+        }
+        int capacity = MIN_CAPACITY;
+        while (capacity < initialCapacity) {
+            capacity <<= 1;
+        }
+        this.items = new double[capacity];
+        this.mask = capacity - 1;
+    }
+
+    private void checkNotEmpty() {
+        if (isEmpty()) {
+            throw new NoSuchElementException("Deque is empty");
+        }
+    }
+
+    // is the deque empty?
+    public boolean isEmpty() {
+        return this.actualSize == 0;
+    }
+
+    // return the number of items on the deque
+    public int size() {
+        return actualSize;
+    }
+
+    // add the item to the front
+    public void addFirst(double item) {
+        if (this.actualSize == this.items.length) {
+            resize(this.items.length << 1);
+        }
+        this.head = (this.head - 1) & this.mask;
+        this.items[this.head] = item;
+        ++this.opId;
+        ++this.actualSize;
+    }
+
+    // add the item to the last
+    public void addLast(double item) {
+        if (this.actualSize == this.items.length) {
+            resize(this.items.length << 1);
+        }
+        this.items[(this.head + this.actualSize) & this.mask] = item;
+        ++this.opId;
+        ++this.actualSize;
+    }
+
+    // remove and return the item from the front
+    public double removeFirst() {
+        checkNotEmpty();
+        double removed = this.items[this.head];
+        this.head = (this.head + 1) & this.mask;
+        ++this.opId;
+        --this.actualSize;
+        reviewShrink();
+        return removed;
+    }
+
+    // remove and return the item from the back
+    public double removeLast() {
+        checkNotEmpty();
+        double removed = this.items[(this.head + this.actualSize - 1) & this.mask];
+        ++this.opId;
+        --this.actualSize;
+        reviewShrink();
+        return removed;
+    }
+
+    private void reviewShrink() {
+        if (this.items.length > MIN_CAPACITY && this.actualSize <= this.items.length >>> 2) {
+            resize(this.items.length >>> 1);
+        }
+    }
+
+    // moves the items to a new buffer, unwrapped so the first one lands at index 0
+    private void resize(int capacity) {
+        if (capacity <= 0 || capacity > MAX_CAPACITY) {
+            throw new OutOfMemoryError("Max memory reached");
+        }
+        double[] destination = new double[capacity];
+        int firstRun = Math.min(this.actualSize, this.items.length - this.head);
+        System.arraycopy(this.items, this.head, destination, 0, firstRun);
+        System.arraycopy(this.items, 0, destination, firstRun, this.actualSize - firstRun);
+        this.items = destination;
+        this.mask = capacity - 1;
+        this.head = 0;
+    }
+
+    // return an iterator over items in order from front to back
+    public PrimitiveIterator.OfDouble iterator() {
+        return new PrimitiveIterator.OfDouble() {
+            private int index = 0;
+            private final long refOpId = DoubleDeque.this.opId;
+
+            @Override
+            public boolean hasNext() {
+                return index < DoubleDeque.this.actualSize;
+            }
+
+            @Override
+            public double nextDouble() {
+                if (this.refOpId != DoubleDeque.this.opId) {
+                    throw new IllegalStateException("Object list modified");
+                } else if (!hasNext()) {
+                    throw new NoSuchElementException("No More Elements");
+                }
+                return items[(head + index++) & mask];
+            }
+        };
+    }
+
+    // unit testing
+    public static void main(String[] args) {
+        DoubleDeque q = new DoubleDeque();
+        StdOut.printf("Queue is empty: True[%s]%n", q.isEmpty());
+        q.addFirst(1);
+        q.addFirst(2);
+        q.addLast(3);
+        StdOut.printf("size: 3->[%d]%n", q.size());
+
+        PrimitiveIterator.OfDouble iterator = q.iterator();
+        StdOut.printf("Read: 2.0[%.1f]%n", iterator.nextDouble());
+        StdOut.printf("Read: 1.0[%.1f]%n", iterator.nextDouble());
+        StdOut.printf("Read: 3.0[%.1f]%n", iterator.nextDouble());
+        StdOut.printf("Iterator Next?: False[%s]%n", iterator.hasNext());
+
+        StdOut.printf("removed 2.0[%.1f]%n", q.removeFirst());
+        StdOut.printf("removed 3.0[%.1f]%n", q.removeLast());
+        StdOut.printf("removed 1.0[%.1f]%n", q.removeLast());
+
+        try {
+            q.removeFirst();
+        } catch (NoSuchElementException nse) {
+            StdOut.println("Queue is empty [" + nse.getMessage());
+        }
+
+        for (int i = 0; i < 100; ++i) {
+            q.addLast(i);
+        }
+        double sum = 0;
+        for (PrimitiveIterator.OfDouble it = q.iterator(); it.hasNext(); ) {
+            sum += it.nextDouble();
+        }
+        StdOut.printf("sum: 4950.0[%.1f]%n", sum);
+
+        PrimitiveIterator.OfDouble iterator1 = q.iterator();
+        q.removeFirst();
+        try {
+            iterator1.nextDouble();
+        } catch (IllegalStateException ise) {
+            StdOut.println("Concurrent modification [" + ise.getMessage());
+        }
+    }
+}
@@ -1,20 +1,21 @@
 import edu.princeton.cs.algs4.StdIn;
 import edu.princeton.cs.algs4.StdOut;
 
-import edu.princeton.cs.algs4.StdRandom;
-
 public class Permutation {
 
+  // k [seed]: with a seed the output is reproducible, otherwise StdRandom is used
   public static void main(String[] args) {
     int k = Integer.parseInt(args[0]);
+    RandomSource random = args.length > 1 ? RandomSource.seeded(Long.parseLong(args[1]))
+        : RandomSource.stdRandom();
     int readCount = 0;
-    RandomizedQueue<String> q = new RandomizedQueue<>();
+    RandomizedQueue<String> q = new RandomizedQueue<>(random);
     while (!StdIn.isEmpty()) {
       String item = StdIn.readString();
       ++readCount;
       if (readCount <= k) {
         q.enqueue(item);
-      } else if (StdRandom.uniformInt(readCount) < (double) k / readCount) {
+      } else if (random.uniformInt(readCount) < (double) k / readCount) {
         q.dequeue();
         q.enqueue(item);
       }
@@ -0,0 +1,222 @@
+import edu.princeton.cs.algs4.StdOut;
+import edu.princeton.cs.algs4.StdRandom;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Source of random numbers for {@link RandomizedQueue} and {@link Permutation}, so callers pick per
+ * instance between the global StdRandom and generators that are seedable, splittable or free of
+ * shared state. Instances are not thread-safe, except threadLocal() and stdRandom(); split() hands
+ * each thread its own independent stream.
+ * uniformInt uses Lemire's nearly divisionless method: one 32x32 bit multiply per draw, and a
+ * modulo only in the rare case where the draw lands in the biased low fringe.
+ * assignment_01 has the same generators as PercolationRandom, so that it compiles without this
+ * assignment; change both together.
+ */
+public interface RandomSource {
+
+  // next 64 uniformly random bits
+  long nextLong();
+
+  // next 32 uniformly random bits
+  default int nextInt() {
+    return (int) (nextLong() >>> 32);
+  }
+
+  // uniform in [0, n)
+  default int uniformInt(int n) {
+    if (n <= 0) {
+      throw new IllegalArgumentException(
+          String.format("bound must be greater than zero, received: %d", n));
+    }
+    // the high word of x * n is uniform in [0, n) unless the low word falls below 2^32 mod n
+    long product = (nextInt() & 0xFFFFFFFFL) * n;
+    if ((product & 0xFFFFFFFFL) < n) {
+      long threshold = (0x100000000L - n) % n;
+      while ((product & 0xFFFFFFFFL) < threshold) {
+        product = (nextInt() & 0xFFFFFFFFL) * n;
+      }
+    }
+    return (int) (product >>> 32);
+  }
+
+  // uniform in [0, 1), 53 random bits
+  default double uniformDouble() {
+    return (nextLong() >>> 11) * 0x1.0p-53;
+  }
+
+  // a new source whose stream is independent of this one, for another thread or task
+  RandomSource split();
+
+  // the global edu.princeton.cs.algs4.StdRandom, seeded with StdRandom.setSeed; draws the same
+  // numbers the classes drew before taking a RandomSource
+  static RandomSource stdRandom() {
+    return StdRandomSource.INSTANCE;
+  }
+
+  // java.util.SplittableRandom with the given seed
+  static RandomSource splittable(long seed) {
+    return new SplittableSource(new SplittableRandom(seed));
+  }
+
+  // java.util.SplittableRandom with a random seed
+  static RandomSource splittable() {
+    return new SplittableSource(new SplittableRandom());
+  }
+
+  // the ThreadLocalRandom of the calling thread, nothing shared between threads; not seedable
+  static RandomSource threadLocal() {
+    return ThreadLocalSource.INSTANCE;
+  }
+
+  // xoroshiro128++ with a random seed
+  static RandomSource xoroshiro() {
+    return new Xoroshiro128PlusPlus(ThreadLocalRandom.current().nextLong());
+  }
+
+  // deterministic mode: xoroshiro128++ with its state expanded from seed by SplitMix64. Fully
+  // specified here, so a seed gives the same stream on every JVM and version
+  static RandomSource seeded(long seed) {
+    return new Xoroshiro128PlusPlus(seed);
+  }
+
+  final class StdRandomSource implements RandomSource {
+
+    private static final StdRandomSource INSTANCE = new StdRandomSource();
+    private static final long HALF = 1L << 32;
+
+    private StdRandomSource() {
+    }
+
+    @Override
+    public long nextLong() {
+      return StdRandom.uniformLong(HALF) << 32 | StdRandom.uniformLong(HALF);
+    }
+
+    @Override
+    public int uniformInt(int n) {
+      return StdRandom.uniformInt(n);
+    }
+
+    @Override
+    public double uniformDouble() {
+      return StdRandom.uniformDouble();
+    }
+
+    // StdRandom is one global stream
+    @Override
+    public RandomSource split() {
+      return this;
+    }
+  }
+
+  final class SplittableSource implements RandomSource {
+
+    private final SplittableRandom random;
+
+    private SplittableSource(SplittableRandom random) {
+      this.random = random;
+    }
+
+    @Override
+    public long nextLong() {
+      return random.nextLong();
+    }
+
+    @Override
+    public int nextInt() {
+      return random.nextInt();
+    }
+
+    @Override
+    public RandomSource split() {
+      return new SplittableSource(random.split());
+    }
+  }
+
+  final class ThreadLocalSource implements RandomSource {
+
+    private static final ThreadLocalSource INSTANCE = new ThreadLocalSource();
+
+    private ThreadLocalSource() {
+    }
+
+    @Override
+    public long nextLong() {
+      return ThreadLocalRandom.current().nextLong();
+    }
+
+    @Override
+    public int nextInt() {
+      return ThreadLocalRandom.current().nextInt();
+    }
+
+    // every thread already draws from its own generator
+    @Override
+    public RandomSource split() {
+      return this;
+    }
+  }
+
+  // Blackman and Vigna's xoroshiro128++: 128 bits of state, period 2^128 - 1
+  final class Xoroshiro128PlusPlus implements RandomSource {
+
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    private long s0;
+    private long s1;
+
+    private Xoroshiro128PlusPlus(long seed) {
+      this.s0 = splitMix64(seed + GOLDEN_GAMMA);
+      this.s1 = splitMix64(seed + 2 * GOLDEN_GAMMA);
+    }
+
+    private static long splitMix64(long z) {
+      z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+      z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+      return z ^ (z >>> 31);
+    }
+
+    @Override
+    public long nextLong() {
+      long a = s0;
+      long b = s1;
+      long result = Long.rotateLeft(a + b, 17) + a;
+      b ^= a;
+      this.s0 = Long.rotateLeft(a, 49) ^ b ^ (b << 21);
+      this.s1 = Long.rotateLeft(b, 28);
+      return result;
+    }
+
+    // seeded from this stream; SplitMix64 scrambles the seed so the child state is unrelated
+    @Override
+    public RandomSource split() {
+      return new Xoroshiro128PlusPlus(nextLong());
+    }
+  }
+
+  // draws from every source and checks the bounded draws cover [0, n) evenly
+  static void main(String[] args) {
+    int n = 6;
+    int draws = 600_000;
+    RandomSource[] sources = {stdRandom(), splittable(42L), threadLocal(), xoroshiro(),
+        seeded(42L)};
+    for (RandomSource source : sources) {
+      int[] counts = new int[n];
+      for (int i = 0; i < draws; ++i) {
+        ++counts[source.uniformInt(n)];
+      }
+      double chiSquare = 0;
+      for (int count : counts) {
+        double expected = (double) draws / n;
+        chiSquare += (count - expected) * (count - expected) / expected;
+      }
+      // 5 degrees of freedom: 20.5 is the 99.9th percentile
+      StdOut.printf("%-22s chi-square %6.2f %s%n", source.getClass().getSimpleName(), chiSquare,
+          chiSquare < 20.5 ? "ok" : "SUSPICIOUS");
+    }
+    StdOut.printf("seeded is deterministic: true[%s]%n",
+        seeded(7L).nextLong() == seeded(7L).nextLong());
+  }
+}
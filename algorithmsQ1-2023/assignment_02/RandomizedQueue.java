@@ -1,5 +1,5 @@
 import edu.princeton.cs.algs4.StdOut;
-import edu.princeton.cs.algs4.StdRandom;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
 
@@ -14,20 +14,28 @@ public class RandomizedQueue<Item> implements Iterable<Item> {
   private Item[] iObjects;
   private long opId = Long.MIN_VALUE;
   private int capacity;
+  private final RandomSource random;
 
-  // construct an empty randomized queue
+  // construct an empty randomized queue drawing from StdRandom
   public RandomizedQueue() {
+    this(RandomSource.stdRandom());
+  }
+
+  // construct an empty randomized queue drawing from the given source, e.g. a seeded one for
+  // reproducible runs or RandomSource.threadLocal() to keep threads off a shared generator
+  public RandomizedQueue(RandomSource random) {
+    if (random == null) {
+      throw new IllegalArgumentException("random source must not be null");
+    }
+    this.random = random;
     this.iActualSize = 0;
     this.capacity = BASE_CAPACITY;
     this.iObjects = buildArrayWithCapacity(BASE_CAPACITY);
   }
 
+  // new arrays are already all null, no need to clear them
   private Item[] buildArrayWithCapacity(int baseCapacity) {
-    Item[] arr = (Item[]) new Object[baseCapacity];
-    for (int i = 0; i < baseCapacity; i++) {
-      arr[i] = null;
-    }
-    return arr;
+    return (Item[]) new Object[baseCapacity];
   }
 
   // is the randomized queue empty?
@@ -64,9 +72,7 @@ public class RandomizedQueue<Item> implements Iterable<Item> {
       throw new OutOfMemoryError("Max memory reached");
     }
     Item[] destination = buildArrayWithCapacity(newLen);
-    for (int i = 0; i < this.iActualSize; ++i) {
-      destination[i] = this.iObjects[i];
-    }
+    System.arraycopy(this.iObjects, 0, destination, 0, this.iActualSize);
     this.capacity = newLen;
     return destination;
   }
@@ -80,9 +86,7 @@ public class RandomizedQueue<Item> implements Iterable<Item> {
 
   private Item[] shrink(int newSize) {
     Item[] destination = buildArrayWithCapacity(newSize);
-    for (int i = 0; i < this.iActualSize; ++i) {
-      destination[i] = this.iObjects[i];
-    }
+    System.arraycopy(this.iObjects, 0, destination, 0, this.iActualSize);
     this.capacity = newSize;
     return destination;
   }
@@ -92,7 +96,7 @@ public class RandomizedQueue<Item> implements Iterable<Item> {
     if (isEmpty()) {
       throw new NoSuchElementException("queue is empty");
     }
-    int pos = StdRandom.uniformInt(this.iActualSize);
+    int pos = random.uniformInt(this.iActualSize);
     Item removed = this.remove(pos);
     --this.iActualSize;
     ++this.opId;
@@ -114,12 +118,13 @@ public class RandomizedQueue<Item> implements Iterable<Item> {
     return BASE_CAPACITY;
   }
 
+  // the order of the array means nothing to a randomized queue: the last item fills the hole,
+  // so removal is O(1) instead of shifting everything after pos
   private Item remove(int pos) {
     Item obj = iObjects[pos];
-    for (int i = pos; i < this.iActualSize - 1; ++i) {
-      iObjects[i] = iObjects[i + 1];
-    }
-    iObjects[this.iActualSize-1] = null;
+    int lastPos = this.iActualSize - 1;
+    iObjects[pos] = iObjects[lastPos];
+    iObjects[lastPos] = null;
     return obj;
   }
 
@@ -128,19 +133,23 @@ public class RandomizedQueue<Item> implements Iterable<Item> {
     if (isEmpty()) {
       throw new NoSuchElementException("Queue is empty");
     }
-    return this.iObjects[StdRandom.uniformInt(this.iActualSize)];
+    return this.iObjects[random.uniformInt(this.iActualSize)];
   }
 
-  // return an independent iterator over items in random order
+  // return an independent iterator over items in random order. The permutation is drawn lazily
+  // with Fisher-Yates: each next() picks one of the items not returned yet and swaps the last
+  // unreturned position into its place. Only displaced positions are stored, in a SwapMap, so
+  // creating an iterator is O(1), next() is O(1) expected and memory grows with the number of
+  // items read. Items are read from the live array, safe because any change fails the iterator
   public Iterator<Item> iterator() {
     return new Iterator<Item>() {
       private final long acceptedId = RandomizedQueue.this.opId;
-      private final Item[] indexes = RandomizedQueue.this.buildIndexesRandom();
-      private int index = 0;
+      private final SwapMap swaps = new SwapMap();
+      private int remaining = RandomizedQueue.this.iActualSize;
 
       @Override
       public boolean hasNext() {
-        return index < indexes.length;
+        return remaining > 0;
       }
 
       @Override
@@ -150,25 +159,76 @@ public class RandomizedQueue<Item> implements Iterable<Item> {
         } else if (!hasNext()) {
           throw new NoSuchElementException("Element does not exist");
         }
-        return indexes[index++];
+        int pick = random.uniformInt(remaining);
+        --remaining;
+        int picked = swaps.get(pick);
+        // positions past remaining are never drawn again, no need to drop their entries
+        if (pick != remaining) {
+          swaps.put(pick, swaps.get(remaining));
+        }
+        return iObjects[picked];
       }
     };
   }
 
-  private Item[] buildIndexesRandom() {
-    int actualSize = this.iActualSize;
-    Item[] permutation = buildArrayWithCapacity(actualSize);
-    boolean[] seen = new boolean[actualSize];
-    int idx = -1;
-    for (int i = 0; i < actualSize; ++i) {
-      idx = StdRandom.uniformInt(actualSize);
-      while (seen[idx]) {
-        idx = StdRandom.uniformInt(actualSize);
+  // int to int open-addressing map with linear probing, reading absent keys as themselves: the
+  // identity permutation, with only the displaced positions stored
+  private static final class SwapMap {
+
+    private static final int INITIAL_CAPACITY = 16;
+    private static final int FREE = -1;
+    private int[] keys = newKeys(INITIAL_CAPACITY);
+    private int[] values = new int[INITIAL_CAPACITY];
+    private int size;
+
+    private static int[] newKeys(int capacity) {
+      int[] keys = new int[capacity];
+      Arrays.fill(keys, FREE);
+      return keys;
+    }
+
+    private int slot(int key, int[] table) {
+      int mask = table.length - 1;
+      int hash = key * 0x9E3779B9;
+      int i = (hash ^ hash >>> 16) & mask;
+      while (table[i] != FREE && table[i] != key) {
+        i = (i + 1) & mask;
+      }
+      return i;
+    }
+
+    int get(int key) {
+      int i = slot(key, keys);
+      return keys[i] == FREE ? key : values[i];
+    }
+
+    void put(int key, int value) {
+      int i = slot(key, keys);
+      if (keys[i] == FREE) {
+        if (2 * (size + 1) > keys.length) {
+          rehash();
+          i = slot(key, keys);
+        }
+        keys[i] = key;
+        ++size;
+      }
+      values[i] = value;
+    }
+
+    // doubles the table, keeping it at most half full
+    private void rehash() {
+      int[] oldKeys = keys;
+      int[] oldValues = values;
+      keys = newKeys(oldKeys.length << 1);
+      values = new int[oldKeys.length << 1];
+      for (int j = 0; j < oldKeys.length; ++j) {
+        if (oldKeys[j] != FREE) {
+          int i = slot(oldKeys[j], keys);
+          keys[i] = oldKeys[j];
+          values[i] = oldValues[j];
+        }
       }
-      seen[idx] = true;
-      permutation[i] = this.iObjects[idx];
     }
-    return permutation;
   }
 
   // unit testing (required) {
@@ -0,0 +1,84 @@
+import edu.princeton.cs.algs4.StdOut;
+import edu.princeton.cs.algs4.StdRandom;
+
+import java.util.Iterator;
+
+/**
+ * Cost per item of filling and draining a {@link RandomizedQueue} of n items. With constant time
+ * dequeue the drain column stays flat as n grows by factors of ten, i.e. a full drain is linear in
+ * n; a shifting dequeue would grow it tenfold each row. The last column is the cost of creating
+ * an iterator and reading its first PEEKED items, independent of n with the lazy iterator.
+ * Usage: java RandomizedQueueBenchmark [repeats] [n ...], defaults to 3 repeats on n = 10000,
+ * 100000, 1000000, 10000000.
+ */
+public class RandomizedQueueBenchmark {
+
+  private static final int[] DEFAULT_SIZES = {10_000, 100_000, 1_000_000, 10_000_000};
+  private static final long SEED = 42L;
+  private static final int PEEKED = 10;
+  private static final int PEEK_ROUNDS = 10_000;
+
+  // the consumed and refilled items end up here so the JIT cannot drop the work that read them
+  private static volatile long sink;
+
+  public static void main(String[] args) {
+    int repeats = args.length > 0 ? Integer.parseInt(args[0]) : 3;
+    int[] sizes = DEFAULT_SIZES;
+    if (args.length > 1) {
+      sizes = new int[args.length - 1];
+      for (int i = 1; i < args.length; ++i) {
+        sizes[i - 1] = Integer.parseInt(args[i]);
+      }
+    }
+    StdRandom.setSeed(SEED);
+    StdOut.printf("%10s %14s %14s %14s %14s%n", "n", "enqueue ns", "dequeue ns", "drain ms",
+        "peek " + PEEKED + " ns");
+    for (int n : sizes) {
+      Integer[] values = new Integer[n];
+      for (int i = 0; i < n; ++i) {
+        values[i] = i;
+      }
+      long fill = Long.MAX_VALUE;
+      long drain = Long.MAX_VALUE;
+      long peek = Long.MAX_VALUE;
+      long check = 0;
+      long consumed = 0;
+      // best of the repeats, the first one doubling as warm-up
+      for (int r = 0; r < repeats; ++r) {
+        RandomizedQueue<Integer> q = new RandomizedQueue<>();
+        long start = System.nanoTime();
+        for (Integer value : values) {
+          q.enqueue(value);
+        }
+        long filled = System.nanoTime();
+        while (!q.isEmpty()) {
+          check += q.dequeue();
+        }
+        long drained = System.nanoTime();
+        fill = Math.min(fill, filled - start);
+        drain = Math.min(drain, drained - filled);
+
+        for (Integer value : values) {
+          q.enqueue(value);
+        }
+        long peekStart = System.nanoTime();
+        for (int k = 0; k < PEEK_ROUNDS; ++k) {
+          Iterator<Integer> iterator = q.iterator();
+          for (int i = 0; i < PEEKED; ++i) {
+            consumed += iterator.next();
+          }
+        }
+        peek = Math.min(peek, (System.nanoTime() - peekStart) / PEEK_ROUNDS);
+        while (!q.isEmpty()) {
+          consumed += q.dequeue();
+        }
+      }
+      sink = consumed;
+      if (check != (long) repeats * n * (n - 1) / 2) {
+        throw new IllegalStateException("items lost while draining");
+      }
+      StdOut.printf("%10d %14.1f %14.1f %14.1f %14d%n", n, (double) fill / n, (double) drain / n,
+          drain / 1e6, peek);
+    }
+  }
+}
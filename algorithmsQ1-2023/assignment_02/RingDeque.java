@@ -0,0 +1,223 @@
+import edu.princeton.cs.algs4.StdOut;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Array-backed {@link Deque}: a circular buffer whose capacity is always a power of two, so slots
+ * are addressed with a mask instead of a modulo and no node is allocated per item. The buffer
+ * doubles when full and, unless disabled, halves when a quarter full.
+ */
+public class RingDeque<Item> implements Iterable<Item> {
+
+    private static final int MIN_CAPACITY = 16;
+    private static final int MAX_CAPACITY = 1 << 30;
+
+    private Item[] items;
+    private int mask;
+    // index of the first item, the last one is at (head + actualSize - 1) & mask
+    private int head;
+    private int actualSize;
+    private final boolean shrink;
+    private long opId = Long.MIN_VALUE;
+
+    // construct an empty deque
+    public RingDeque() {
+        this(MIN_CAPACITY, true);
+    }
+
+    // construct an empty deque holding at least initialCapacity items before it grows; with
+    // shrink false the buffer never gets smaller, for deques that refill to the same size
+    public RingDeque(int initialCapacity, boolean shrink) {
+        if (initialCapacity < 0 || initialCapacity > MAX_CAPACITY) {
+            throw new IllegalArgumentException(String.format(
+                    "capacity must be between [0,%d], received: %d", MAX_CAPACITY,
+                    initialCapacity));
+        }
+        int capacity = MIN_CAPACITY;
+        while (capacity < initialCapacity) {
+            capacity <<= 1;
+        }
+        this.items = newArray(capacity);
+        this.mask = capacity - 1;
+        this.shrink = shrink;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <Item> Item[] newArray(int capacity) {
+        return (Item[]) new Object[capacity];
+    }
+
+    private void checkValidItem(Item item) {
+        if (item == null) {
+            throw new IllegalArgumentException("Element must not be null");
+        }
+    }
+
+    private void checkNotEmpty() {
+        if (isEmpty()) {
+            throw new NoSuchElementException("Deque is empty");
+        }
+    }
+
+    // is the deque empty?
+    public boolean isEmpty() {
+        return this.actualSize == 0;
+    }
+
+    // return the number of items on the deque
+    public int size() {
+        return actualSize;
+    }
+
+    // add the item to the front
+    public void addFirst(Item item) {
+        checkValidItem(item);
+        if (this.actualSize == this.items.length) {
+            resize(this.items.length << 1);
+        }
+        this.head = (this.head - 1) & this.mask;
+        this.items[this.head] = item;
+        ++this.opId;
+        ++this.actualSize;
+    }
+
+    // add the item to the last
+    public void addLast(Item item) {
+        checkValidItem(item);
+        if (this.actualSize == this.items.length) {
+            resize(this.items.length << 1);
+        }
+        this.items[(this.head + this.actualSize) & this.mask] = item;
+        ++this.opId;
+        ++this.actualSize;
+    }
+
+    // remove and return the item from the front
+    public Item removeFirst() {
+        checkNotEmpty();
+        Item removed = this.items[this.head];
+        this.items[this.head] = null;
+        this.head = (this.head + 1) & this.mask;
+        ++this.opId;
+        --this.actualSize;
+        reviewShrink();
+        return removed;
+    }
+
+    // remove and return the item from the back
+    public Item removeLast() {
+        checkNotEmpty();
+        int tail = (this.head + this.actualSize - 1) & this.mask;
+        Item removed = this.items[tail];
+        this.items[tail] = null;
+        ++this.opId;
+        --this.actualSize;
+        reviewShrink();
+        return removed;
+    }
+
+    private void reviewShrink() {
+        if (this.shrink && this.items.length > MIN_CAPACITY
+                && this.actualSize <= this.items.length >>> 2) {
+            resize(this.items.length >>> 1);
+        }
+    }
+
+    // moves the items to a new buffer, unwrapped so the first one lands at index 0
+    private void resize(int capacity) {
+        if (capacity <= 0 || capacity > MAX_CAPACITY) {
+            throw new OutOfMemoryError("Max memory reached");
+        }
+        Item[] destination = newArray(capacity);
+        int firstRun = Math.min(this.actualSize, this.items.length - this.head);
+        System.arraycopy(this.items, this.head, destination, 0, firstRun);
+        System.arraycopy(this.items, 0, destination, firstRun, this.actualSize - firstRun);
+        this.items = destination;
+        this.mask = capacity - 1;
+        this.head = 0;
+    }
+
+    // current length of the backing buffer
+    int capacity() {
+        return this.items.length;
+    }
+
+    // return an iterator over items in order from front to back
+    public Iterator<Item> iterator() {
+        return new Iterator<Item>() {
+            private int index = 0;
+            private final long refOpId = RingDeque.this.opId;
+
+            @Override
+            public boolean hasNext() {
+                return index < RingDeque.this.actualSize;
+            }
+
+            @Override
+            public Item next() {
+                if (this.refOpId != RingDeque.this.opId) {
+                    throw new IllegalStateException("Object list modified");
+                } else if (!hasNext()) {
+                    throw new NoSuchElementException("No More Elements");
+                }
+                return items[(head + index++) & mask];
+            }
+        };
+    }
+
+    // unit testing
+    public static void main(String[] args) {
+        RingDeque<Integer> q = new RingDeque<>();
+        StdOut.printf("Queue is empty: True[%s]%n", q.isEmpty());
+        q.addFirst(1);
+        q.addFirst(2);
+        q.addLast(3);
+        StdOut.printf("size: 3->[%d]%n", q.size());
+
+        Iterator<Integer> iterator = q.iterator();
+        StdOut.printf("Read: 2[%d]%n", iterator.next());
+        StdOut.printf("Read: 1[%d]%n", iterator.next());
+        StdOut.printf("Read: 3[%d]%n", iterator.next());
+        StdOut.printf("Iterator Next?: False[%s]%n", iterator.hasNext());
+
+        StdOut.printf("removed 2[%d]%n", q.removeFirst());
+        StdOut.printf("removed 3[%d]%n", q.removeLast());
+        StdOut.printf("removed 1[%d]%n", q.removeLast());
+
+        try {
+            q.removeFirst();
+        } catch (NoSuchElementException nse) {
+            StdOut.println("Queue is empty [" + nse.getMessage());
+        }
+
+        // wrap around the end of the buffer, grow while wrapped, then shrink back
+        for (int i = 0; i < 10; ++i) {
+            q.addLast(i);
+            q.removeFirst();
+        }
+        for (int i = 0; i < 100; ++i) {
+            q.addLast(i);
+        }
+        boolean inOrder = true;
+        int expected = 0;
+        for (int value : q) {
+            inOrder &= value == expected++;
+        }
+        StdOut.printf("in order after growing: true[%s] capacity: 128[%d]%n", inOrder,
+                q.capacity());
+        while (q.size() > 1) {
+            q.removeLast();
+        }
+        StdOut.printf("last item: 0[%d] capacity: 16[%d]%n", q.removeFirst(), q.capacity());
+
+        q.addFirst(1);
+        Iterator<Integer> iterator1 = q.iterator();
+        q.removeFirst();
+        try {
+            iterator1.next();
+        } catch (IllegalStateException ise) {
+            StdOut.println("Concurrent modification [" + ise.getMessage());
+        }
+    }
+}
@@ -0,0 +1,248 @@
+import edu.princeton.cs.algs4.StdOut;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Unrolled-list {@link Deque}: a doubly linked list of fixed-size blocks of BLOCK_SIZE slots.
+ * Growing links one more block and never copies items, so the cost of any operation is bounded
+ * whatever the size, and one node per BLOCK_SIZE items keeps the object count low. Emptied blocks
+ * go back to a small pool and are reused before anything new is allocated, so a deque whose size
+ * oscillates allocates nothing in steady state.
+ */
+public class UnrolledDeque<Item> implements Iterable<Item> {
+
+    static final int BLOCK_SIZE = 128;
+    private static final int POOL_SIZE = 4;
+
+    private static class Block {
+        final Object[] slots = new Object[BLOCK_SIZE];
+        Block prev;
+        Block next;
+    }
+
+    private Block first;
+    private Block last;
+    // first item at first.slots[head], last one at last.slots[tail - 1]
+    private int head;
+    private int tail;
+    private int actualSize;
+    // emptied blocks, linked through next; their slots are all null
+    private Block pool;
+    private int pooled;
+    private long opId = Long.MIN_VALUE;
+
+    // construct an empty deque
+    public UnrolledDeque() {
+        this.first = new Block();
+        this.last = this.first;
+        recenter();
+    }
+
+    // an empty deque starts mid-block so both ends can grow before linking a block
+    private void recenter() {
+        this.head = BLOCK_SIZE / 2;
+        this.tail = BLOCK_SIZE / 2;
+    }
+
+    private Block acquire() {
+        if (this.pool == null) {
+            return new Block();
+        }
+        Block block = this.pool;
+        this.pool = block.next;
+        block.next = null;
+        --this.pooled;
+        return block;
+    }
+
+    private void release(Block block) {
+        block.prev = null;
+        block.next = null;
+        if (this.pooled < POOL_SIZE) {
+            block.next = this.pool;
+            this.pool = block;
+            ++this.pooled;
+        }
+    }
+
+    private void checkValidItem(Item item) {
+        if (item == null) {
+            throw new IllegalArgumentException("Element must not be null");
+        }
+    }
+
+    private void checkNotEmpty() {
+        if (isEmpty()) {
+            throw new NoSuchElementException("Deque is empty");
+        }
+    }
+
+    // is the deque empty?
+    public boolean isEmpty() {
+        return this.actualSize == 0;
+    }
+
+    // return the number of items on the deque
+    public int size() {
+        return actualSize;
+    }
+
+    // add the item to the front
+    public void addFirst(Item item) {
+        checkValidItem(item);
+        if (this.head == 0) {
+            Block block = acquire();
+            block.next = this.first;
+            this.first.prev = block;
+            this.first = block;
+            this.head = BLOCK_SIZE;
+        }
+        this.first.slots[--this.head] = item;
+        ++this.opId;
+        ++this.actualSize;
+    }
+
+    // add the item to the last
+    public void addLast(Item item) {
+        checkValidItem(item);
+        if (this.tail == BLOCK_SIZE) {
+            Block block = acquire();
+            block.prev = this.last;
+            this.last.next = block;
+            this.last = block;
+            this.tail = 0;
+        }
+        this.last.slots[this.tail++] = item;
+        ++this.opId;
+        ++this.actualSize;
+    }
+
+    // remove and return the item from the front
+    @SuppressWarnings("unchecked")
+    public Item removeFirst() {
+        checkNotEmpty();
+        Item removed = (Item) this.first.slots[this.head];
+        this.first.slots[this.head++] = null;
+        ++this.opId;
+        --this.actualSize;
+        if (this.actualSize == 0) {
+            // the only item left was in the only block
+            recenter();
+        } else if (this.head == BLOCK_SIZE) {
+            Block emptied = this.first;
+            this.first = emptied.next;
+            this.first.prev = null;
+            release(emptied);
+            this.head = 0;
+        }
+        return removed;
+    }
+
+    // remove and return the item from the back
+    @SuppressWarnings("unchecked")
+    public Item removeLast() {
+        checkNotEmpty();
+        Item removed = (Item) this.last.slots[--this.tail];
+        this.last.slots[this.tail] = null;
+        ++this.opId;
+        --this.actualSize;
+        if (this.actualSize == 0) {
+            recenter();
+        } else if (this.tail == 0) {
+            Block emptied = this.last;
+            this.last = emptied.prev;
+            this.last.next = null;
+            release(emptied);
+            this.tail = BLOCK_SIZE;
+        }
+        return removed;
+    }
+
+    // number of emptied blocks waiting for reuse
+    int pooledBlocks() {
+        return this.pooled;
+    }
+
+    // return an iterator over items in order from front to back
+    public Iterator<Item> iterator() {
+        return new Iterator<Item>() {
+            private Block block = UnrolledDeque.this.first;
+            private int index = UnrolledDeque.this.head;
+            private int remaining = UnrolledDeque.this.actualSize;
+            private final long refOpId = UnrolledDeque.this.opId;
+
+            @Override
+            public boolean hasNext() {
+                return remaining > 0;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public Item next() {
+                if (this.refOpId != UnrolledDeque.this.opId) {
+                    throw new IllegalStateException("Object list modified");
+                } else if (!hasNext()) {
+                    throw new NoSuchElementException("No More Elements");
+                }
+                if (index == BLOCK_SIZE) {
+                    block = block.next;
+                    index = 0;
+                }
+                --remaining;
+                return (Item) block.slots[index++];
+            }
+        };
+    }
+
+    // unit testing
+    public static void main(String[] args) {
+        UnrolledDeque<Integer> q = new UnrolledDeque<>();
+        StdOut.printf("Queue is empty: True[%s]%n", q.isEmpty());
+        q.addFirst(1);
+        q.addFirst(2);
+        q.addLast(3);
+        StdOut.printf("size: 3->[%d]%n", q.size());
+
+        Iterator<Integer> iterator = q.iterator();
+        StdOut.printf("Read: 2[%d]%n", iterator.next());
+        StdOut.printf("Read: 1[%d]%n", iterator.next());
+        StdOut.printf("Read: 3[%d]%n", iterator.next());
+        StdOut.printf("Iterator Next?: False[%s]%n", iterator.hasNext());
+
+        StdOut.printf("removed 2[%d]%n", q.removeFirst());
+        StdOut.printf("removed 3[%d]%n", q.removeLast());
+        StdOut.printf("removed 1[%d]%n", q.removeLast());
+
+        try {
+            q.removeLast();
+        } catch (NoSuchElementException nse) {
+            StdOut.println("Queue is empty [" + nse.getMessage());
+        }
+
+        // span several blocks at both ends, then drain: emptied blocks land in the pool
+        for (int i = 0; i < 5 * BLOCK_SIZE; ++i) {
+            q.addLast(i);
+            q.addFirst(-i - 1);
+        }
+        boolean inOrder = true;
+        int expected = -5 * BLOCK_SIZE;
+        for (int value : q) {
+            inOrder &= value == expected++;
+        }
+        StdOut.printf("in order across blocks: true[%s]%n", inOrder);
+        while (!q.isEmpty()) {
+            q.removeFirst();
+        }
+        StdOut.printf("pooled blocks: %d[%d]%n", POOL_SIZE, q.pooledBlocks());
+
+        q.addFirst(1);
+        Iterator<Integer> iterator1 = q.iterator();
+        q.addLast(2);
+        try {
+            iterator1.next();
+        } catch (IllegalStateException ise) {
+            StdOut.println("Concurrent modification [" + ise.getMessage());
+        }
+    }
+}
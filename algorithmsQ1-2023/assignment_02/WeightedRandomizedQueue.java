@@ -0,0 +1,409 @@
+import edu.princeton.cs.algs4.StdOut;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * {@link RandomizedQueue} whose sample() and dequeue() pick each item with probability
+ * proportional to its weight. Items sit in an array, as in RandomizedQueue, with a Fenwick tree
+ * of their weights on top: a weighted pick descends the tree and enqueue, dequeue and weight
+ * updates adjust O(log n) tree nodes. enqueue returns a handle that follows the item as it moves
+ * in the array, for setWeight.
+ * Static sets get an O(1) fast path: once the queue has been sampled size() times in a row with no
+ * change, sample() builds a Walker/Vose alias table and draws from it until the next change.
+ * Floating point drift in the tree is bounded by rebuilding it exactly after every size() updates.
+ */
+public class WeightedRandomizedQueue<Item> implements Iterable<Item> {
+
+  private static final int BASE_CAPACITY = 16;
+  private static final int MAX_ARRAY_SIZE = 1 << 30;
+
+  // position of an item in the queue, valid while the item is queued
+  public static final class Handle {
+
+    private int slot;
+    private double weight;
+
+    private Handle(int slot, double weight) {
+      this.slot = slot;
+      this.weight = weight;
+    }
+
+    // current weight of the item
+    public double weight() {
+      return this.weight;
+    }
+
+    // is the item still in the queue?
+    public boolean isQueued() {
+      return this.slot >= 0;
+    }
+  }
+
+  private Item[] items;
+  private Handle[] handles;
+  // 1-based Fenwick tree over the weights of slots 0..capacity-1, tree[0] unused
+  private double[] tree;
+  private int iActualSize;
+  private long opId = Long.MIN_VALUE;
+  private int updatesSinceRebuild;
+  private final RandomSource random;
+  // alias fast path: valid while aliasOpId == opId
+  private double[] aliasProbability;
+  private int[] alias;
+  private long aliasOpId;
+  private int samplesSinceChange;
+
+  // construct an empty weighted randomized queue drawing from StdRandom
+  public WeightedRandomizedQueue() {
+    this(RandomSource.stdRandom());
+  }
+
+  // construct an empty weighted randomized queue drawing from the given source
+  public WeightedRandomizedQueue(RandomSource random) {
+    if (random == null) {
+      throw new IllegalArgumentException("random source must not be null");
+    }
+    this.random = random;
+    allocate(BASE_CAPACITY);
+  }
+
+  @SuppressWarnings("unchecked")
+  private void allocate(int capacity) {
+    Item[] oldItems = this.items;
+    Handle[] oldHandles = this.handles;
+    this.items = (Item[]) new Object[capacity];
+    this.handles = new Handle[capacity];
+    if (oldItems != null) {
+      System.arraycopy(oldItems, 0, this.items, 0, this.iActualSize);
+      System.arraycopy(oldHandles, 0, this.handles, 0, this.iActualSize);
+    }
+    rebuildTree();
+  }
+
+  // O(n) exact rebuild: every node gets the sum of its range from the weights themselves
+  private void rebuildTree() {
+    int capacity = this.items.length;
+    double[] fresh = new double[capacity + 1];
+    for (int i = 0; i < this.iActualSize; ++i) {
+      fresh[i + 1] = this.handles[i].weight;
+    }
+    // each node passes its finished sum up to its parent
+    for (int i = 1; i <= capacity; ++i) {
+      int parent = i + (i & -i);
+      if (parent <= capacity) {
+        fresh[parent] += fresh[i];
+      }
+    }
+    this.tree = fresh;
+    this.updatesSinceRebuild = 0;
+  }
+
+  private void add(int slot, double delta) {
+    for (int i = slot + 1; i < this.tree.length; i += i & -i) {
+      this.tree[i] += delta;
+    }
+  }
+
+  private void changed() {
+    ++this.opId;
+    this.samplesSinceChange = 0;
+    if (++this.updatesSinceRebuild > Math.max(BASE_CAPACITY, this.iActualSize)) {
+      rebuildTree();
+    }
+  }
+
+  private static void checkWeight(double weight) {
+    if (!(weight > 0) || Double.isInfinite(weight)) {
+      throw new IllegalArgumentException(
+          String.format("weight must be positive and finite, received: %s", weight));
+    }
+  }
+
+  // is the queue empty?
+  public boolean isEmpty() {
+    return this.iActualSize == 0;
+  }
+
+  // return the number of items on the queue
+  public int size() {
+    return this.iActualSize;
+  }
+
+  // sum of the weights of the queued items
+  public double totalWeight() {
+    double sum = 0;
+    for (int i = this.iActualSize; i > 0; i -= i & -i) {
+      sum += this.tree[i];
+    }
+    return sum;
+  }
+
+  // add the item with the given weight
+  public Handle enqueue(Item item, double weight) {
+    if (item == null) {
+      throw new IllegalArgumentException("item must not be null");
+    }
+    checkWeight(weight);
+    if (this.iActualSize == this.items.length) {
+      if (this.items.length == MAX_ARRAY_SIZE) {
+        throw new OutOfMemoryError("Max memory reached");
+      }
+      allocate(this.items.length << 1);
+    }
+    int slot = this.iActualSize++;
+    Handle handle = new Handle(slot, weight);
+    this.items[slot] = item;
+    this.handles[slot] = handle;
+    add(slot, weight);
+    changed();
+    return handle;
+  }
+
+  // change the weight of a queued item, O(log n)
+  public void setWeight(Handle handle, double weight) {
+    checkQueued(handle);
+    checkWeight(weight);
+    add(handle.slot, weight - handle.weight);
+    handle.weight = weight;
+    changed();
+  }
+
+  private void checkQueued(Handle handle) {
+    if (handle == null || !handle.isQueued() || this.handles[handle.slot] != handle) {
+      throw new IllegalArgumentException("handle is not queued here");
+    }
+  }
+
+  // remove and return an item picked proportionally to its weight
+  public Item dequeue() {
+    if (isEmpty()) {
+      throw new NoSuchElementException("queue is empty");
+    }
+    return remove(pick(this.tree, this.iActualSize, totalWeight()));
+  }
+
+  // remove the item of the handle, wherever it is
+  public Item remove(Handle handle) {
+    checkQueued(handle);
+    return remove(handle.slot);
+  }
+
+  // the last item fills the hole, as in RandomizedQueue
+  private Item remove(int slot) {
+    Item removed = this.items[slot];
+    Handle gone = this.handles[slot];
+    int lastSlot = --this.iActualSize;
+    add(slot, -gone.weight);
+    if (slot != lastSlot) {
+      Handle moved = this.handles[lastSlot];
+      add(lastSlot, -moved.weight);
+      add(slot, moved.weight);
+      moved.slot = slot;
+      this.items[slot] = this.items[lastSlot];
+      this.handles[slot] = moved;
+    }
+    this.items[lastSlot] = null;
+    this.handles[lastSlot] = null;
+    gone.slot = -1;
+    changed();
+    if (this.items.length > BASE_CAPACITY && this.iActualSize <= this.items.length >>> 2) {
+      allocate(this.items.length >>> 1);
+    }
+    return removed;
+  }
+
+  // return an item picked proportionally to its weight (but do not remove it)
+  public Item sample() {
+    if (isEmpty()) {
+      throw new NoSuchElementException("Queue is empty");
+    }
+    if (this.alias != null && this.aliasOpId == this.opId) {
+      int column = random.uniformInt(this.iActualSize);
+      return this.items[random.uniformDouble() < this.aliasProbability[column]
+          ? column : this.alias[column]];
+    }
+    if (++this.samplesSinceChange >= this.iActualSize) {
+      // as many samples as items with no change: the O(n) table pays for itself
+      buildAlias();
+    }
+    return this.items[pick(this.tree, this.iActualSize, totalWeight())];
+  }
+
+  // slot whose weight range contains a uniform point of [0, total): Fenwick descent, O(log n)
+  private int pick(double[] fenwick, int size, double total) {
+    double remaining = random.uniformDouble() * total;
+    int slot = 0;
+    for (int step = Integer.highestOneBit(fenwick.length - 1); step > 0; step >>= 1) {
+      int next = slot + step;
+      if (next < fenwick.length && fenwick[next] <= remaining) {
+        slot = next;
+        remaining -= fenwick[next];
+      }
+    }
+    // rounding can push the descent past the last item
+    return Math.min(slot, size - 1);
+  }
+
+  // Vose's alias method: every column holds its own item with some probability and one alias
+  private void buildAlias() {
+    int n = this.iActualSize;
+    double total = 0;
+    for (int i = 0; i < n; ++i) {
+      total += this.handles[i].weight;
+    }
+    double[] scaled = new double[n];
+    int[] small = new int[n];
+    int[] large = new int[n];
+    int smallCount = 0;
+    int largeCount = 0;
+    for (int i = 0; i < n; ++i) {
+      scaled[i] = this.handles[i].weight * n / total;
+      if (scaled[i] < 1) {
+        small[smallCount++] = i;
+      } else {
+        large[largeCount++] = i;
+      }
+    }
+    double[] probability = new double[n];
+    int[] aliases = new int[n];
+    while (smallCount > 0 && largeCount > 0) {
+      int less = small[--smallCount];
+      int more = large[--largeCount];
+      probability[less] = scaled[less];
+      aliases[less] = more;
+      scaled[more] = (scaled[more] + scaled[less]) - 1;
+      if (scaled[more] < 1) {
+        small[smallCount++] = more;
+      } else {
+        large[largeCount++] = more;
+      }
+    }
+    // leftovers are 1 up to rounding
+    while (largeCount > 0) {
+      probability[large[--largeCount]] = 1;
+    }
+    while (smallCount > 0) {
+      probability[small[--smallCount]] = 1;
+    }
+    this.aliasProbability = probability;
+    this.alias = aliases;
+    this.aliasOpId = this.opId;
+  }
+
+  // return an independent iterator over items in weighted random order: each next() is a weighted
+  // pick among the items not returned yet. Creating it copies the tree, O(n); next() is O(log n)
+  public Iterator<Item> iterator() {
+    return new Iterator<Item>() {
+      private final long acceptedId = WeightedRandomizedQueue.this.opId;
+      private final double[] remainingTree = Arrays.copyOf(tree, tree.length);
+      private double remainingWeight = totalWeight();
+      private int remaining = iActualSize;
+
+      @Override
+      public boolean hasNext() {
+        return remaining > 0;
+      }
+
+      @Override
+      public Item next() {
+        if (acceptedId != WeightedRandomizedQueue.this.opId) {
+          throw new IllegalStateException("Object list modified");
+        } else if (!hasNext()) {
+          throw new NoSuchElementException("Element does not exist");
+        }
+        int slot = pick(remainingTree, iActualSize, remainingWeight);
+        // rounding may land on an item already returned: fall back to the nearest one left
+        while (weightLeft(slot) <= 0) {
+          slot = slot + 1 < iActualSize ? slot + 1 : 0;
+        }
+        double weight = handles[slot].weight;
+        for (int i = slot + 1; i < remainingTree.length; i += i & -i) {
+          remainingTree[i] -= weight;
+        }
+        remainingWeight -= weight;
+        --remaining;
+        return items[slot];
+      }
+
+      // weight of slot still in the copied tree, from the difference of two prefix sums
+      private double weightLeft(int slot) {
+        double sum = remainingTree[slot + 1];
+        int stop = slot + 1 - ((slot + 1) & -(slot + 1));
+        for (int i = slot; i > stop; i -= i & -i) {
+          sum -= remainingTree[i];
+        }
+        return sum > handles[slot].weight / 2 ? sum : 0;
+      }
+    };
+  }
+
+  // unit testing
+  public static void main(String[] args) {
+    WeightedRandomizedQueue<String> q = new WeightedRandomizedQueue<>(RandomSource.seeded(42L));
+    Handle a = q.enqueue("A", 1);
+    q.enqueue("B", 2);
+    Handle c = q.enqueue("C", 7);
+    StdOut.printf("size: 3[%d] total: 10.0[%.1f]%n", q.size(), q.totalWeight());
+
+    int draws = 100_000;
+    int[] counts = new int[3];
+    for (int i = 0; i < draws; ++i) {
+      ++counts[q.sample().charAt(0) - 'A'];
+    }
+    // the later samples come from the alias table
+    StdOut.printf("sample frequencies: 0.1 0.2 0.7[%.3f %.3f %.3f]%n", counts[0] / (double) draws,
+        counts[1] / (double) draws, counts[2] / (double) draws);
+
+    q.setWeight(a, 9);
+    q.setWeight(c, 1);
+    counts = new int[3];
+    for (int i = 0; i < draws; ++i) {
+      ++counts[q.sample().charAt(0) - 'A'];
+      if (i % 3 == 0) {
+        // keep the alias table invalid, sampling through the tree
+        q.setWeight(c, 1);
+      }
+    }
+    StdOut.printf("after setWeight: 0.75 0.167 0.083[%.3f %.3f %.3f]%n",
+        counts[0] / (double) draws, counts[1] / (double) draws, counts[2] / (double) draws);
+
+    StdOut.printf("removed C: C[%s] queued: false[%s]%n", q.remove(c), c.isQueued());
+    StringBuilder order = new StringBuilder();
+    for (String item : q) {
+      order.append(item);
+    }
+    StdOut.printf("iterates both: 2[%d]%n", order.length());
+    StdOut.printf("dequeue: %s %s, empty: true[%s]%n", q.dequeue(), q.dequeue(), q.isEmpty());
+
+    try {
+      q.sample();
+    } catch (NoSuchElementException nse) {
+      StdOut.println("NSE " + nse.getMessage());
+    }
+    try {
+      q.enqueue("D", 0);
+    } catch (IllegalArgumentException iae) {
+      StdOut.println("weight rejected: " + iae.getMessage());
+    }
+    try {
+      q.setWeight(c, 3);
+    } catch (IllegalArgumentException iae) {
+      StdOut.println("stale handle: " + iae.getMessage());
+    }
+
+    // dequeue frequencies over many small queues: first pick ~ weight
+    int[] first = new int[4];
+    for (int t = 0; t < draws; ++t) {
+      WeightedRandomizedQueue<Integer> small = new WeightedRandomizedQueue<>(q.random);
+      for (int i = 0; i < 4; ++i) {
+        small.enqueue(i, i + 1);
+      }
+      ++first[small.dequeue()];
+    }
+    StdOut.printf("dequeue frequencies: 0.1 0.2 0.3 0.4[%.3f %.3f %.3f %.3f]%n",
+        first[0] / (double) draws, first[1] / (double) draws, first[2] / (double) draws,
+        first[3] / (double) draws);
+  }
+}